@@ -0,0 +1,68 @@
+#!/bin/sh
+# Czas od uruchomienia JVM do pierwszej udanej odpowiedzi GET /api/samochody w trzech trybach:
+#   jar     - zwykły fat jar
+#   aot     - rozpakowany jar z kodem po przetwarzaniu Spring AOT
+#   aot-cds - jak aot, z archiwum AppCDS z przebiegu treningowego
+# Wymaga zbudowania: mvn -Pfast-startup -DskipTests package (z dostępną bazą) oraz działającej bazy.
+# Użycie: scripts/startup-benchmark.sh [liczba_powtórzeń] [dodatkowe argumenty aplikacji]
+set -eu
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-5}"
+[ $# -gt 0 ] && shift
+PORT="${PORT:-8080}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+JAR=car-rental-backend-0.0.1-SNAPSHOT.jar
+DIR=target/fast-startup
+URL="http://localhost:$PORT/api/samochody"
+
+if [ ! -f "$DIR/application.jsa" ]; then
+    echo "Brak $DIR/application.jsa - uruchom: mvn -Pfast-startup -DskipTests package" >&2
+    exit 1
+fi
+
+# %N obsługuje tylko GNU date - na macOS/BSD zegar milisekundowy z Perla
+now_ms() {
+    ms=$(date +%s%3N)
+    case "$ms" in
+        *[!0-9]*) perl -MTime::HiRes=time -e 'printf "%d\n", time() * 1000' ;;
+        *) echo "$ms" ;;
+    esac
+}
+
+# Jeden start: czas do pierwszej odpowiedzi 200, potem zatrzymanie aplikacji
+measure() {
+    start=$(now_ms)
+    "$@" --server.port="$PORT" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Aplikacja zakończyła się przed pierwszą odpowiedzią" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    end=$(now_ms)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo $((end - start))
+}
+
+report() {
+    mode=$1
+    shift
+    times=""
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        times="$times $(measure "$@")"
+        i=$((i + 1))
+    done
+    sorted=$(echo $times | tr ' ' '\n' | sort -n)
+    min=$(echo "$sorted" | head -n 1)
+    median=$(echo "$sorted" | sed -n "$(((RUNS + 1) / 2))p")
+    printf '%-8s min %6d ms   mediana %6d ms   (%s)\n' "$mode" "$min" "$median" "$(echo $times)"
+}
+
+report jar java $JAVA_OPTS -jar "target/$JAR" "$@"
+report aot java $JAVA_OPTS -Dspring.aot.enabled=true -jar "$DIR/$JAR" "$@"
+report aot-cds java $JAVA_OPTS -XX:SharedArchiveFile="$DIR/application.jsa" -Dspring.aot.enabled=true -jar "$DIR/$JAR" "$@"
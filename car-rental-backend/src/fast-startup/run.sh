@@ -0,0 +1,6 @@
+#!/bin/sh
+# Start z kodem po przetwarzaniu AOT i archiwum AppCDS zbudowanym przez profil fast-startup.
+# Archiwum jest ważne tylko dla tej samej wersji JVM i tych samych jarów - po zmianie trzeba przebudować
+DIR="$(cd "$(dirname "$0")" && pwd)"
+exec java -XX:SharedArchiveFile="$DIR/application.jsa" -Dspring.aot.enabled=true $JAVA_OPTS \
+    -jar "$DIR/car-rental-backend-0.0.1-SNAPSHOT.jar" "$@"
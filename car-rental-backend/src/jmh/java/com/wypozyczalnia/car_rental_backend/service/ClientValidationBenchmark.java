@@ -0,0 +1,69 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Walidacja i normalizacja jednego wiersza importu klientów: dane już znormalizowane
+// oraz dane "z zewnątrz" (wielkość liter, nadmiarowe spacje)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class ClientValidationBenchmark {
+
+    @Param({"clean", "messy"})
+    private String input;
+
+    private String firstName;
+    private String lastName;
+    private String email;
+
+    @Setup(Level.Trial)
+    public void prepareInput() {
+        if ("clean".equals(input)) {
+            firstName = "Małgorzata";
+            lastName = "Nowak-Kowalska";
+            email = "malgorzata.nowak@example.com";
+        } else {
+            firstName = "  mAŁGORZATA   ";
+            lastName = "nowak-KOWALSKA \t";
+            email = "  Malgorzata.Nowak@Example.COM ";
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        Client client = new Client(firstName, lastName, email);
+        LegacyClientValidation.validateClient(client);
+        LegacyClientValidation.normalizeClient(client);
+        blackhole.consume(client.getFirstName());
+        blackhole.consume(client.getLastName());
+        blackhole.consume(client.getEmail());
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        Client client = new Client(firstName, lastName, email);
+        ClientValidator.validate(client);
+        ClientValidator.normalize(client);
+        blackhole.consume(client.getFirstName());
+        blackhole.consume(client.getLastName());
+        blackhole.consume(client.getEmail());
+    }
+}
@@ -0,0 +1,82 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+
+import java.util.regex.Pattern;
+
+// Poprzednia implementacja z ClientService - punkt odniesienia dla ClientValidationBenchmark
+final class LegacyClientValidation {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$"
+    );
+
+    private LegacyClientValidation() {
+    }
+
+    static void normalizeClient(Client client) {
+        client.setFirstName(normalizeText(client.getFirstName()));
+        client.setLastName(normalizeText(client.getLastName()));
+        client.setEmail(client.getEmail().toLowerCase().trim());
+    }
+
+    static void validateClient(Client client) {
+
+        if (client.getFirstName() == null || client.getFirstName().trim().isEmpty()) {
+            throw new IllegalArgumentException("First name is required");
+        }
+
+        if (client.getFirstName().trim().length() < 2) {
+            throw new IllegalArgumentException("First name must be at least 2 characters long");
+        }
+
+        if (client.getFirstName().trim().length() > 50) {
+            throw new IllegalArgumentException("First name cannot be longer than 50 characters");
+        }
+
+        if (client.getLastName() == null || client.getLastName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Last name is required");
+        }
+
+        if (client.getLastName().trim().length() < 2) {
+            throw new IllegalArgumentException("Last name must be at least 2 characters long");
+        }
+
+        if (client.getLastName().trim().length() > 50) {
+            throw new IllegalArgumentException("Last name cannot be longer than 50 characters");
+        }
+
+        if (client.getEmail() == null || client.getEmail().trim().isEmpty()) {
+            throw new IllegalArgumentException("Email is required");
+        }
+
+        if (!EMAIL_PATTERN.matcher(client.getEmail().trim()).matches()) {
+            throw new IllegalArgumentException("Email has invalid format");
+        }
+
+        if (client.getEmail().trim().length() > 255) {
+            throw new IllegalArgumentException("Email cannot be longer than 255 characters");
+        }
+
+        if (containsInvalidCharacters(client.getFirstName()) ||
+                containsInvalidCharacters(client.getLastName())) {
+            throw new IllegalArgumentException("First name and last name can only contain letters, spaces, hyphens and apostrophes");
+        }
+    }
+
+    private static String normalizeText(String text) {
+        if (text == null) return null;
+
+        String normalized = text.trim().replaceAll("\\s+", " ");
+        if (normalized.isEmpty()) return normalized;
+
+        return normalized.substring(0, 1).toUpperCase() +
+                normalized.substring(1).toLowerCase();
+    }
+
+    private static boolean containsInvalidCharacters(String text) {
+        if (text == null) return false;
+
+        return !text.matches("[\\p{L}\\s\\-']+");
+    }
+}
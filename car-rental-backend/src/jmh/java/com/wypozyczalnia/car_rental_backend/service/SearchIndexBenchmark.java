@@ -0,0 +1,60 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Zapytania typeahead na indeksie trigramów klientów: krótki prefiks (dużo kandydatów),
+// fragment nazwiska i fragment emaila
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Anna", "Jan", "Małgorzata", "Piotr", "Katarzyna", "Tomasz", "Ewa", "Łukasz"};
+    private static final String[] LAST_NAMES = {"Nowak", "Kowalski", "Wiśniewski", "Wójcik", "Kamiński", "Lewandowski", "Zieliński"};
+
+    @Param({"10000", "100000"})
+    private int clients;
+
+    @Param({"ko", "owals", "jan kow", "example.com"})
+    private String query;
+
+    private TrigramIndex<Client> index;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        index = new TrigramIndex<>(Comparator.comparing(Client::getLastName).thenComparing(Client::getId));
+        Random random = new Random(42);
+        for (long id = 1; id <= clients; id++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + (id % 1000);
+            Client client = new Client(firstName, lastName, firstName.toLowerCase() + "." + id + "@example.com");
+            client.setId(id);
+            index.put(id, client, client.getFirstName(), client.getLastName(), client.getEmail());
+        }
+    }
+
+    @Benchmark
+    public List<Client> search() {
+        return index.search(query, SearchService.DEFAULT_LIMIT);
+    }
+}
@@ -0,0 +1,105 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import com.wypozyczalnia.car_rental_backend.model.entity.Rental;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Operacje serwisów na wbudowanej H2. Wypożyczenie i zwrot są przygotowywane/sprzątane na poziomie
+// pojedynczego wywołania - koszt operacji (zapytania i transakcja) jest wielokrotnie większy od narzutu JMH
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        Long nextOf(List<Long> ids) {
+            return ids.get(next++ % ids.size());
+        }
+    }
+
+    // Samochód wypożyczony w benchmarku jest zwracany po pomiarze
+    @State(Scope.Thread)
+    public static class RentState {
+        Rental rental;
+
+        @TearDown(Level.Invocation)
+        public void returnRented(ServiceBenchmarkContext ctx) {
+            if (rental != null) {
+                ctx.rentalService.returnCar(rental.getId());
+                rental = null;
+            }
+        }
+    }
+
+    // Przed każdym pomiarem zwrotu wypożyczany jest kolejny samochód
+    @State(Scope.Thread)
+    public static class ReturnState {
+        Rental rental;
+
+        @Setup(Level.Invocation)
+        public void rent(ServiceBenchmarkContext ctx, Cursor cursor) {
+            LocalDate today = LocalDate.now();
+            rental = ctx.rentalService.rentCar(cursor.nextOf(ctx.clientIds), cursor.nextOf(ctx.carIds),
+                    today, today.plusDays(3));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ClientSequence {
+        private long next;
+
+        Client nextClient() {
+            return new Client("  anna ", "NOWAK", "Anna.Nowak" + System.identityHashCode(this) + "." + next++ + "@Example.com");
+        }
+    }
+
+    @Benchmark
+    public Rental rentCar(ServiceBenchmarkContext ctx, Cursor cursor, RentState state) {
+        LocalDate today = LocalDate.now();
+        state.rental = ctx.rentalService.rentCar(cursor.nextOf(ctx.clientIds), cursor.nextOf(ctx.carIds),
+                today, today.plusDays(3));
+        return state.rental;
+    }
+
+    @Benchmark
+    public Rental returnCar(ServiceBenchmarkContext ctx, ReturnState state) {
+        return ctx.rentalService.returnCar(state.rental.getId());
+    }
+
+    @Benchmark
+    public List<Car> findAvailable(ServiceBenchmarkContext ctx) {
+        return ctx.carService.findAvailable();
+    }
+
+    @Benchmark
+    public List<Car> findAvailableForPeriod(ServiceBenchmarkContext ctx) {
+        LocalDate from = LocalDate.now().plusDays(10);
+        return ctx.carService.findAvailable(from, from.plusDays(7));
+    }
+
+    @Benchmark
+    public Client saveClient(ServiceBenchmarkContext ctx, ClientSequence sequence) {
+        return ctx.clientService.save(sequence.nextClient());
+    }
+}
@@ -0,0 +1,86 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.CarRentalBackendApplication;
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
+import com.wypozyczalnia.car_rental_backend.repository.ClientRepository;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Kontekst aplikacji na wbudowanej bazie H2 z danymi startowymi - jeden na fork JMH
+@State(Scope.Benchmark)
+public class ServiceBenchmarkContext {
+
+    private static final String[] BRANDS = {"Toyota", "Skoda", "Ford", "BMW", "Audi", "Kia", "Opel", "Fiat"};
+
+    @Param("500")
+    int cars;
+
+    @Param("1000")
+    int clients;
+
+    ConfigurableApplicationContext context;
+    CarService carService;
+    ClientService clientService;
+    RentalService rentalService;
+
+    List<Long> carIds;
+    List<Long> clientIds;
+
+    @Setup
+    public void start() {
+        context = new SpringApplicationBuilder(CarRentalBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--rentals.overdue.cron=-",
+                        "--rentals.start.cron=-",
+                        "--logging.level.root=WARN");
+
+        carService = context.getBean(CarService.class);
+        clientService = context.getBean(ClientService.class);
+        rentalService = context.getBean(RentalService.class);
+
+        seed();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    private void seed() {
+        List<Car> fleet = new ArrayList<>(cars);
+        for (int i = 0; i < cars; i++) {
+            fleet.add(new Car(BRANDS[i % BRANDS.length], "Model " + i,
+                    BigDecimal.valueOf(100 + i % 200), CarStatus.DOSTEPNY));
+        }
+        carIds = context.getBean(CarRepository.class).saveAll(fleet).stream().map(Car::getId).toList();
+
+        List<Client> people = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            people.add(new Client("Jan", "Kowalski", "jan.kowalski" + i + "@example.com"));
+        }
+        clientIds = context.getBean(ClientRepository.class).saveAll(people).stream().map(Client::getId).toList();
+    }
+}
@@ -0,0 +1,38 @@
+package com.wypozyczalnia.car_rental_backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            @Value("${admission.rate-limit.capacity:20}") long capacity,
+            @Value("${admission.rate-limit.refill-per-second:5}") double refillPerSecond,
+            @Value("${admission.rate-limit.max-clients:100000}") long maxClients,
+            @Value("${admission.partner-keys:}") Set<String> partnerKeys,
+            @Value("${admission.max-concurrent:64}") int maxConcurrent,
+            @Value("${admission.max-wait:50ms}") Duration maxWait,
+            MeterRegistry registry) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new TokenBucketRateLimiter(capacity, refillPerSecond, maxClients), partnerKeys, maxConcurrent, maxWait,
+                registry);
+        Gauge.builder("admission.in_flight", filter, AdmissionControlFilter::getInFlight)
+                .description("Booking requests currently admitted")
+                .register(registry);
+
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/wypozyczenia/*");
+        return registration;
+    }
+}
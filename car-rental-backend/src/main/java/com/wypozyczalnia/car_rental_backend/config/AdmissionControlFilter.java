@@ -0,0 +1,131 @@
+package com.wypozyczalnia.car_rental_backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Kontrola przyjęć dla zapisów wypożyczeń: limit żądań per klient (429) i globalny limit równoległych
+// wykonań RentalService (503). Odrzucenie jest natychmiastowe, więc przeciążenie nie wydłuża kolejki
+// i opóźnień pozostałych klientów
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    // Tylko wypożyczenie, wypożyczenie zbiorcze i zwrot - wycena i odczyty nie są limitowane
+    private static final List<Endpoint> BOOKING_WRITES = List.of(
+            new Endpoint(HttpMethod.POST, "/api/wypozyczenia/wypozycz"),
+            new Endpoint(HttpMethod.POST, "/api/wypozyczenia/wypozycz/zbiorczo"),
+            new Endpoint(HttpMethod.PUT, "/api/wypozyczenia/{id}/zwroc"));
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final Set<String> partnerKeys;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public AdmissionControlFilter(TokenBucketRateLimiter rateLimiter, Set<String> partnerKeys, int maxConcurrent,
+                                  Duration maxWait, MeterRegistry registry) {
+        this.rateLimiter = rateLimiter;
+        this.partnerKeys = Set.copyOf(partnerKeys);
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.rateLimited = Counter.builder("admission.rejected").tag("reason", "rate_limit")
+                .description("Booking requests rejected before reaching RentalService")
+                .register(registry);
+        this.shed = Counter.builder("admission.rejected").tag("reason", "overload")
+                .description("Booking requests rejected before reaching RentalService")
+                .register(registry);
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        return BOOKING_WRITES.stream().noneMatch(endpoint -> endpoint.matches(request.getMethod(), path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquire(clientKey(request));
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+            return;
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            shed.increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Własny kubełek dostaje tylko znany klucz partnera (admission.partner-keys) - nieznany klucz nie tworzy
+    // nowego kubełka, więc zmiana klucza w każdym żądaniu nie omija limitu adresu i nie wypiera innych klientów
+    String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && partnerKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Odpowiedź powstaje przed kontrolerem i jego @CrossOrigin - nagłówki CORS dodawane tutaj,
+    // aby aplikacja w przeglądarce mogła odczytać Retry-After
+    private static void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                               long retryAfterSeconds) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        if (request.getHeader(HttpHeaders.ORIGIN) != null) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.RETRY_AFTER);
+        }
+    }
+
+    private record Endpoint(HttpMethod method, PathPattern pattern) {
+
+        Endpoint(HttpMethod method, String pattern) {
+            this(method, PathPatternParser.defaultInstance.parse(pattern));
+        }
+
+        boolean matches(String requestMethod, PathContainer path) {
+            return method.matches(requestMethod) && pattern.matches(path);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.wypozyczalnia.car_rental_backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+// Kubełek żetonów per klucz klienta. Stan kubełka podmieniany przez CAS - bez blokad, więc wątki
+// wirtualne nie czekają na siebie. Nieużywane kubełki wygasają, liczba kluczy jest ograniczona
+public class TokenBucketRateLimiter {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+    private final Cache<String, AtomicReference<Bucket>> buckets;
+
+    public TokenBucketRateLimiter(long capacity, double refillPerSecond, long maxKeys) {
+        this(capacity, refillPerSecond, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(long capacity, double refillPerSecond, long maxKeys, LongSupplier nanoTime) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.nanoTime = nanoTime;
+        // Po tym czasie bezczynności kubełek i tak byłby pełny
+        Duration idle = Duration.ofNanos((long) Math.ceil(capacity / tokensPerNano)).plusSeconds(1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idle)
+                .build();
+    }
+
+    // 0 - żeton pobrany; w przeciwnym razie czas w nanosekundach do pojawienia się kolejnego żetonu
+    public long tryAcquire(String key) {
+        long now = nanoTime.getAsLong();
+        AtomicReference<Bucket> state = buckets.get(key, k -> new AtomicReference<>(new Bucket(capacity, now)));
+        while (true) {
+            Bucket current = state.get();
+            double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.updatedAt()) * tokensPerNano);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new Bucket(tokens - 1, Math.max(now, current.updatedAt())))) {
+                return 0;
+            }
+        }
+    }
+
+    private record Bucket(double tokens, long updatedAt) {
+    }
+}
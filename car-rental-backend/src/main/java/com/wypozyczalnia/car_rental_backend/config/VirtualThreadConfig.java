@@ -0,0 +1,53 @@
+package com.wypozyczalnia.car_rental_backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Tryb wątków wirtualnych (spring.threads.virtual.enabled=true): Tomcat, @Scheduled i @Async działają
+// na wątkach wirtualnych, a dostęp do puli HikariCP jest dławiony semaforem o rozmiarze puli
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                // Domyślnie tyle zezwoleń, ile połączeń w puli - nadmiarowe wątki czekają na semaforze, nie w Hikari
+                Integer poolSize = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : null;
+                int limit = environment.getProperty("datasource.connection-limit.max-connections", Integer.class,
+                        poolSize != null ? poolSize : 10);
+                Duration timeout = environment.getProperty("datasource.connection-limit.acquire-timeout", Duration.class,
+                        Duration.ofSeconds(30));
+                return new ConnectionLimitingDataSource(dataSource, limit, timeout);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource limited) {
+                Gauge.builder("datasource.connection.limit.waiting", limited, ConnectionLimitingDataSource::getWaitingThreads)
+                        .description("Threads waiting for a connection permit")
+                        .register(registry);
+                Gauge.builder("datasource.connection.limit.available", limited, ConnectionLimitingDataSource::getAvailablePermits)
+                        .description("Free connection permits")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -1,14 +1,32 @@
 package com.wypozyczalnia.car_rental_backend.controller;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.CursorPage;
+import com.wypozyczalnia.car_rental_backend.model.dto.DataFormat;
+import com.wypozyczalnia.car_rental_backend.model.dto.ImportReport;
 import com.wypozyczalnia.car_rental_backend.model.entity.Car;
 import com.wypozyczalnia.car_rental_backend.model.exception.CarNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
 import com.wypozyczalnia.car_rental_backend.service.CarService;
+import com.wypozyczalnia.car_rental_backend.service.CarStatusBroadcaster;
+import com.wypozyczalnia.car_rental_backend.service.CollectionVersions;
+import com.wypozyczalnia.car_rental_backend.service.ImportService;
+import com.wypozyczalnia.car_rental_backend.service.SearchService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,18 +36,44 @@ import java.util.List;
 public class CarController {
 
     private final CarService carService;
+    private final ImportService importService;
+    private final SearchService searchService;
+    private final CarStatusBroadcaster carStatusBroadcaster;
+    private final CollectionVersions collectionVersions;
 
+    // Wersja czytana przed danymi - odpowiedź nigdy nie jest starsza niż jej ETag
     @GetMapping
-    public ResponseEntity<List<Car>> getAllCars() {
-        List<Car> cars = carService.findAll();
-        return ResponseEntity.ok(cars);
+    public ResponseEntity<CursorPage<Car>> getAllCars(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+            WebRequest request) {
+        String etag = collectionVersions.etag(CollectionVersions.Resource.CARS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        try {
+            CursorPage<Car> cars = carService.findPage(after, limit);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(cars);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/szukaj")
+    public ResponseEntity<List<Car>> searchCars(@RequestParam String q,
+            @RequestParam(defaultValue = "" + SearchService.DEFAULT_LIMIT) int limit) {
+        try {
+            List<Car> cars = searchService.searchCars(q, limit);
+            return ResponseEntity.ok(cars);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Car> getCarById(@PathVariable Long id) {
         try {
             Car car = carService.findById(id);
-            return ResponseEntity.ok(car);
+            return ResponseEntity.ok().eTag(ETags.of(car.getVersion())).body(car);
         } catch (CarNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
@@ -46,12 +90,20 @@ public class CarController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Car> updateCar(@PathVariable Long id, @Valid @RequestBody Car car) {
+    public ResponseEntity<Car> updateCar(@PathVariable Long id, @Valid @RequestBody Car car,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
+            if (ifMatch != null) {
+                car.setVersion(ETags.parseVersion(ifMatch));
+            }
             Car updated = carService.update(id, car);
-            return ResponseEntity.ok(updated);
+            return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
         } catch (CarNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (VersionConflictException | ObjectOptimisticLockingFailureException e) {
+            return conflict(id);
         }
     }
 
@@ -68,8 +120,46 @@ public class CarController {
     }
 
     @GetMapping("/dostepne")
-    public ResponseEntity<List<Car>> getAvailableCars() {
-        List<Car> available = carService.findAvailable();
-        return ResponseEntity.ok(available);
+    public ResponseEntity<List<Car>> getAvailableCars(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from == null && to == null) {
+            List<Car> available = carService.findAvailable();
+            return ResponseEntity.ok(available);
+        }
+
+        try {
+            List<Car> available = carService.findAvailable(from, to);
+            return ResponseEntity.ok(available);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Zmiany statusu po zatwierdzeniu transakcji (zdarzenia "status"); "resync" - bufor klienta przepełniony, należy pobrać listę ponownie
+    @GetMapping(value = "/zdarzenia", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatusChanges() {
+        return carStatusBroadcaster.subscribe();
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importCars(HttpServletRequest request) {
+        try {
+            DataFormat format = DataFormat.fromContentType(request.getContentType());
+            ImportReport report = importService.importCars(request.getInputStream(), format);
+            return ResponseEntity.ok(report);
+        } catch (IOException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Bieżący stan dla 409 - samochód usunięty w międzyczasie to 404
+    private ResponseEntity<Car> conflict(Long id) {
+        try {
+            Car current = carService.findById(id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).eTag(ETags.of(current.getVersion())).body(current);
+        } catch (CarNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 }
@@ -1,14 +1,26 @@
 package com.wypozyczalnia.car_rental_backend.controller;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.CursorPage;
+import com.wypozyczalnia.car_rental_backend.model.dto.DataFormat;
+import com.wypozyczalnia.car_rental_backend.model.dto.ImportReport;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalHistoryPage;
 import com.wypozyczalnia.car_rental_backend.model.entity.Client;
 import com.wypozyczalnia.car_rental_backend.model.exception.ClientNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
 import com.wypozyczalnia.car_rental_backend.service.ClientService;
+import com.wypozyczalnia.car_rental_backend.service.ImportService;
+import com.wypozyczalnia.car_rental_backend.service.RentalService;
+import com.wypozyczalnia.car_rental_backend.service.SearchService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,23 +30,56 @@ import java.util.List;
 public class ClientController {
 
     private final ClientService clientService;
+    private final ImportService importService;
+    private final SearchService searchService;
+    private final RentalService rentalService;
 
     @GetMapping
-    public ResponseEntity<List<Client>> getAllClients() {
-        List<Client> clients = clientService.findAll();
-        return ResponseEntity.ok(clients);
+    public ResponseEntity<CursorPage<Client>> getAllClients(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        try {
+            CursorPage<Client> clients = clientService.findPage(after, limit);
+            return ResponseEntity.ok(clients);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/szukaj")
+    public ResponseEntity<List<Client>> searchClients(@RequestParam String q,
+            @RequestParam(defaultValue = "" + SearchService.DEFAULT_LIMIT) int limit) {
+        try {
+            List<Client> clients = searchService.searchClients(q, limit);
+            return ResponseEntity.ok(clients);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Client> getClientById(@PathVariable Long id) {
         try {
             Client client = clientService.findById(id);
-            return ResponseEntity.ok(client);
+            return ResponseEntity.ok().eTag(ETags.of(client.getVersion())).body(client);
         } catch (ClientNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @GetMapping("/{id}/wypozyczenia")
+    public ResponseEntity<RentalHistoryPage> getClientRentals(@PathVariable Long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        try {
+            RentalHistoryPage history = rentalService.findClientHistory(id, after, limit);
+            return ResponseEntity.ok(history);
+        } catch (ClientNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<Client> createClient(@Valid @RequestBody Client client) {
         try {
@@ -46,12 +91,20 @@ public class ClientController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Client> updateClient(@PathVariable Long id, @Valid @RequestBody Client client) {
+    public ResponseEntity<Client> updateClient(@PathVariable Long id, @Valid @RequestBody Client client,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
+            if (ifMatch != null) {
+                client.setVersion(ETags.parseVersion(ifMatch));
+            }
             Client updated = clientService.update(id, client);
-            return ResponseEntity.ok(updated);
+            return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
         } catch (ClientNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (VersionConflictException | ObjectOptimisticLockingFailureException e) {
+            return conflict(id);
         }
     }
 
@@ -66,4 +119,25 @@ public class ClientController {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importClients(HttpServletRequest request) {
+        try {
+            DataFormat format = DataFormat.fromContentType(request.getContentType());
+            ImportReport report = importService.importClients(request.getInputStream(), format);
+            return ResponseEntity.ok(report);
+        } catch (IOException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Bieżący stan dla 409 - klient usunięty w międzyczasie to 404
+    private ResponseEntity<Client> conflict(Long id) {
+        try {
+            Client current = clientService.findById(id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).eTag(ETags.of(current.getVersion())).body(current);
+        } catch (ClientNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,74 +1,178 @@
 package com.wypozyczalnia.car_rental_backend.controller;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.BatchRentalRequest;
+import com.wypozyczalnia.car_rental_backend.model.dto.CursorPage;
+import com.wypozyczalnia.car_rental_backend.model.dto.DataFormat;
+import com.wypozyczalnia.car_rental_backend.model.dto.OverdueRunReport;
+import com.wypozyczalnia.car_rental_backend.model.dto.PriceQuote;
+import com.wypozyczalnia.car_rental_backend.model.dto.QuoteRequest;
 import com.wypozyczalnia.car_rental_backend.model.dto.RentalRequest;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalView;
 import com.wypozyczalnia.car_rental_backend.model.entity.Client;
 import com.wypozyczalnia.car_rental_backend.model.entity.Rental;
 import com.wypozyczalnia.car_rental_backend.model.exception.CarNotFoundException;
 import com.wypozyczalnia.car_rental_backend.model.exception.ClientNotFoundException;
 import com.wypozyczalnia.car_rental_backend.model.exception.RentalNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
+import com.wypozyczalnia.car_rental_backend.service.CollectionVersions;
+import com.wypozyczalnia.car_rental_backend.service.ExportService;
+import com.wypozyczalnia.car_rental_backend.service.IdempotencyService;
+import com.wypozyczalnia.car_rental_backend.service.OverdueRentalService;
 import com.wypozyczalnia.car_rental_backend.service.RentalService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/wypozyczenia")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.RETRY_AFTER)
 public class RentalController {
 
     private final RentalService rentalService;
+    private final ExportService exportService;
+    private final OverdueRentalService overdueRentalService;
+    private final CollectionVersions collectionVersions;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
-    public ResponseEntity<List<Rental>> getAllRentals() {
-        List<Rental> wypozyczenia = rentalService.findAll();
-        return ResponseEntity.ok(wypozyczenia);
+    public ResponseEntity<CursorPage<RentalView>> getAllRentals(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        try {
+            CursorPage<RentalView> wypozyczenia = rentalService.findPage(after, limit);
+            return ResponseEntity.ok(wypozyczenia);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     @GetMapping("/aktywne")
-    public ResponseEntity<List<Rental>> getActiveRentals() {
-        List<Rental> wypozyczenia = rentalService.findActiveRentals();
+    public ResponseEntity<List<RentalView>> getActiveRentals(WebRequest request) {
+        String etag = collectionVersions.etag(CollectionVersions.Resource.RENTALS);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        List<RentalView> wypozyczenia = rentalService.findActiveRentals();
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(wypozyczenia);
+    }
+
+    @GetMapping("/przeterminowane")
+    public ResponseEntity<List<RentalView>> getOverdueRentals() {
+        List<RentalView> wypozyczenia = rentalService.findOverdueRentals();
         return ResponseEntity.ok(wypozyczenia);
     }
 
+    @GetMapping("/przeterminowane/ostatnie-uruchomienie")
+    public ResponseEntity<OverdueRunReport> getLastOverdueRun() {
+        return overdueRentalService.getLastRun()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRentals(@RequestParam(defaultValue = "csv") String format) {
+        DataFormat dataFormat;
+        try {
+            dataFormat = DataFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String fileName = "wypozyczenia." + dataFormat.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(dataFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(output -> exportService.exportRentals(output, dataFormat));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Rental> getRentalById(@PathVariable Long id) {
+    public ResponseEntity<RentalView> getRentalById(@PathVariable Long id) {
         try {
-            Rental rental = rentalService.findById(id);
-            return ResponseEntity.ok(rental);
+            RentalView rental = rentalService.findViewById(id);
+            return ResponseEntity.ok().eTag(ETags.of(rental.version())).body(rental);
         }catch (RentalNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    // Ponowienie z tym samym Idempotency-Key zwraca pierwotną odpowiedź zamiast drugiej rezerwacji
     @PostMapping("/wypozycz")
-    public ResponseEntity<Rental> rentCar(@Valid @RequestBody RentalRequest request) {
+    public ResponseEntity<?> rentCar(@Valid @RequestBody RentalRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "wypozycz", request, () -> {
+            try {
+                Rental rental = rentalService.rentCar(
+                        request.getClientId(),
+                        request.getCarId(),
+                        request.getRentalDate(),
+                        request.getPlannedReturnDate()
+                );
+                return ResponseEntity.status(HttpStatus.CREATED).body(rental);
+            } catch (IllegalArgumentException | IllegalStateException | ClientNotFoundException | CarNotFoundException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    @PostMapping("/wycena")
+    public ResponseEntity<PriceQuote> quote(@Valid @RequestBody QuoteRequest request) {
         try {
-            Rental rental = rentalService.rentCar(
-                    request.getClientId(),
-                    request.getCarId(),
-                    request.getRentalDate(),
-                    request.getPlannedReturnDate()
-            );
-            return ResponseEntity.status(HttpStatus.CREATED).body(rental);
+            PriceQuote quote = rentalService.quote(request.getCarId(), request.getRentalDate(), request.getPlannedReturnDate());
+            return ResponseEntity.ok(quote);
+        } catch (CarNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/wypozycz/zbiorczo")
+    public ResponseEntity<List<Rental>> rentCars(@Valid @RequestBody BatchRentalRequest request) {
+        try {
+            List<Rental> rentals = rentalService.rentCars(request.getRentals());
+            return ResponseEntity.status(HttpStatus.CREATED).body(rentals);
         } catch (IllegalArgumentException | IllegalStateException | ClientNotFoundException | CarNotFoundException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @PutMapping("/{id}/zwroc")
-    public ResponseEntity<Rental> returnCar(@PathVariable Long id) {
+    public ResponseEntity<?> returnCar(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "zwroc", Arrays.asList(id, ifMatch), () -> {
+            try {
+                Rental rental = rentalService.returnCar(id, ETags.parseVersion(ifMatch));
+                return ResponseEntity.ok().eTag(ETags.of(rental.getVersion())).body(rental);
+            } catch (RentalNotFoundException e) {
+                return ResponseEntity.notFound().build();
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return ResponseEntity.badRequest().build();
+            } catch (VersionConflictException | ObjectOptimisticLockingFailureException e) {
+                return conflict(id);
+            }
+        });
+    }
+
+    // Bieżący stan dla 409 - brak wypożyczenia to 404, a nie wyjątek zwalniający klucz idempotencji
+    private ResponseEntity<RentalView> conflict(Long id) {
         try {
-            Rental rental = rentalService.returnCar(id);
-            return ResponseEntity.ok(rental);
+            RentalView current = rentalService.findViewById(id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).eTag(ETags.of(current.version())).body(current);
         } catch (RentalNotFoundException e) {
             return ResponseEntity.notFound().build();
-        } catch (IllegalStateException e) {
-            return ResponseEntity.badRequest().build();
         }
     }
 }
@@ -0,0 +1,72 @@
+package com.wypozyczalnia.car_rental_backend.controller;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.BrandUtilization;
+import com.wypozyczalnia.car_rental_backend.model.dto.CarMonthlyRevenue;
+import com.wypozyczalnia.car_rental_backend.model.dto.RollupRebuildReport;
+import com.wypozyczalnia.car_rental_backend.model.exception.RollupRebuildInProgressException;
+import com.wypozyczalnia.car_rental_backend.service.RentalRollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/raporty")
+public class ReportController {
+
+    static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    private final RentalRollupService rollupService;
+    private final byte[] rebuildToken;
+
+    public ReportController(RentalRollupService rollupService,
+                            @Value("${rollups.rebuild.token:}") String rebuildToken) {
+        this.rollupService = rollupService;
+        this.rebuildToken = rebuildToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ?from=2025-01&to=2025-12[&carId=]
+    @CrossOrigin(origins = "*")
+    @GetMapping("/przychody")
+    public ResponseEntity<List<CarMonthlyRevenue>> getRevenue(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                              @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+                                                              @RequestParam(required = false) Long carId) {
+        try {
+            return ResponseEntity.ok(rollupService.findRevenue(from, to, carId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @CrossOrigin(origins = "*")
+    @GetMapping("/wykorzystanie")
+    public ResponseEntity<List<BrandUtilization>> getUtilization(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                                                 @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        try {
+            return ResponseEntity.ok(rollupService.findUtilization(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Przeliczenie agregatów od zera z historii wypożyczeń - tylko z tokenem administracyjnym,
+    // bez CORS; przy pustym rollups.rebuild.token endpoint jest wyłączony
+    @PostMapping("/przebuduj")
+    public ResponseEntity<RollupRebuildReport> rebuild(@RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token) {
+        if (rebuildToken.length == 0 || token == null
+                || !MessageDigest.isEqual(rebuildToken, token.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return ResponseEntity.ok(rollupService.rebuild());
+        } catch (RollupRebuildInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
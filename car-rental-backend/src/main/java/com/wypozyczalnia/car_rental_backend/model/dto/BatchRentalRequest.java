@@ -0,0 +1,20 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRentalRequest {
+
+    @NotEmpty(message = "At least one rental is required")
+    @Size(max = 100, message = "Batch cannot contain more than 100 rentals")
+    private List<@Valid RentalRequest> rentals;
+}
@@ -0,0 +1,23 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import java.time.LocalDate;
+
+// Okres rezerwacji samochodu w postaci przedziału półotwartego [from, to)
+public record BookedPeriod(Long rentalId, Long carId, LocalDate from, LocalDate to) {
+
+    public BookedPeriod {
+        if (to == null) {
+            to = LocalDate.MAX;
+        }
+    }
+
+    public boolean overlaps(LocalDate otherFrom, LocalDate otherTo) {
+        return from.isBefore(otherTo) && otherFrom.isBefore(to);
+    }
+
+    // Niezwrócone wypożyczenie po planowanym terminie zajmuje samochód co najmniej do dziś włącznie
+    public boolean overlaps(LocalDate otherFrom, LocalDate otherTo, LocalDate today) {
+        LocalDate end = to.isAfter(today) ? to : today.plusDays(1);
+        return from.isBefore(otherTo) && otherFrom.isBefore(end);
+    }
+}
@@ -0,0 +1,4 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+public record BrandCount(String brand, long cars) {
+}
@@ -0,0 +1,9 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+// utilization = rentedDays / (fleetSize * dni w miesiącu); fleetSize to bieżąca liczba samochodów marki
+public record BrandUtilization(String brand, YearMonth month, long rentals, long cancellations,
+                               BigDecimal revenue, long rentedDays, long fleetSize, double utilization) {
+}
@@ -0,0 +1,8 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+public record CarMonthlyRevenue(Long carId, YearMonth month, long rentals, long cancellations,
+                                BigDecimal revenue, long rentedDays) {
+}
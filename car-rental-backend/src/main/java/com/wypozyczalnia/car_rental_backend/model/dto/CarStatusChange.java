@@ -0,0 +1,7 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+
+// status == null oznacza usunięcie samochodu, previousStatus == null - dodanie
+public record CarStatusChange(Long carId, Long version, CarStatus previousStatus, CarStatus status) {
+}
@@ -0,0 +1,24 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Wiersz historii wypożyczeń klienta - bez danych klienta, który jest znany z adresu zapytania
+public record ClientRentalView(
+        Long id,
+        Long version,
+        Long carId,
+        String brand,
+        String model,
+        LocalDate rentalDate,
+        LocalDate returnDate,
+        BigDecimal totalCost,
+        RentalStatus status
+) {
+
+    public static final String SELECT = "SELECT new com.wypozyczalnia.car_rental_backend.model.dto.ClientRentalView(" +
+            "r.id, r.version, c.id, c.brand, c.model, r.rentalDate, r.returnDate, r.totalCost, r.status) " +
+            "FROM Rental r JOIN r.car c ";
+}
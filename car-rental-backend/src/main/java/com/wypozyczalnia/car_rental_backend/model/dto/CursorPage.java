@@ -0,0 +1,26 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPage<T>(List<T> items, Long next) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    // Repozytoria pobierają limit + 1 wierszy - nadmiarowy wiersz oznacza, że istnieje kolejna strona
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> cursorExtractor) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorExtractor.apply(items.get(limit - 1)));
+    }
+
+    public static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import java.util.List;
+
+public record ImportReport(long imported, long failed, List<RowError> errors, boolean errorsTruncated) {
+
+    public record RowError(long line, String message) {
+    }
+}
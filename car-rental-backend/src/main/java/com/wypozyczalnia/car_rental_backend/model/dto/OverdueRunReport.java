@@ -0,0 +1,7 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public record OverdueRunReport(Instant startedAt, Duration duration, long markedOverdue, int chunks) {
+}
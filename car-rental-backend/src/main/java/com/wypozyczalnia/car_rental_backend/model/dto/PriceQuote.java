@@ -0,0 +1,9 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// standardCost - cena według stawki dziennej, różnica względem totalCost to rabat za tydzień/miesiąc
+public record PriceQuote(Long carId, LocalDate rentalDate, LocalDate plannedReturnDate, long days,
+                         BigDecimal totalCost, BigDecimal standardCost) {
+}
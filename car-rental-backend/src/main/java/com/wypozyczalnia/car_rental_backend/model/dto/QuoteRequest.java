@@ -0,0 +1,23 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteRequest {
+
+    @NotNull(message = "Car ID is required")
+    private Long carId;
+
+    @NotNull(message = "Rental date is required")
+    private LocalDate rentalDate;
+
+    @NotNull(message = "Planned return date is required")
+    private LocalDate plannedReturnDate;
+}
@@ -0,0 +1,11 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Minimalna projekcja wypożyczenia do przeliczania agregatów
+public record RentalFact(Long carId, String brand, LocalDate rentalDate, LocalDate returnDate,
+                         BigDecimal totalCost, RentalStatus status) {
+}
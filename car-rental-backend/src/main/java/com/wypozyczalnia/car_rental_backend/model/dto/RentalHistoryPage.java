@@ -0,0 +1,38 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// Strona historii od najnowszych; kursor "rentalDate_id" wskazuje ostatni zwrócony wiersz
+public record RentalHistoryPage(List<ClientRentalView> items, String next) {
+
+    public static RentalHistoryPage of(List<ClientRentalView> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new RentalHistoryPage(rows, null);
+        }
+
+        List<ClientRentalView> items = rows.subList(0, limit);
+        ClientRentalView last = items.get(limit - 1);
+        return new RentalHistoryPage(items, new Cursor(last.rentalDate(), last.id()).format());
+    }
+
+    public record Cursor(LocalDate rentalDate, Long id) {
+
+        public static Cursor parse(String value) {
+            int separator = value.indexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            try {
+                return new Cursor(LocalDate.parse(value.substring(0, separator)), Long.valueOf(value.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + value, e);
+            }
+        }
+
+        public String format() {
+            return rentalDate + "_" + id;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record RentalView(
+        Long id,
+        Long version,
+        ClientView client,
+        CarView car,
+        LocalDate rentalDate,
+        LocalDate returnDate,
+        BigDecimal totalCost,
+        RentalStatus status
+) {
+
+    public static final String SELECT = "SELECT new com.wypozyczalnia.car_rental_backend.model.dto.RentalView(" +
+            "r.id, r.version, cl.id, cl.firstName, cl.lastName, cl.email, " +
+            "c.id, c.brand, c.model, c.dailyPrice, c.status, " +
+            "r.rentalDate, r.returnDate, r.totalCost, r.status) " +
+            "FROM Rental r JOIN r.client cl JOIN r.car c ";
+
+    // Konstruktor dla wyrażenia "SELECT new" - JPQL nie pozwala zagnieżdżać konstruktorów
+    public RentalView(Long id, Long version,
+                      Long clientId, String firstName, String lastName, String email,
+                      Long carId, String brand, String model, BigDecimal dailyPrice, CarStatus carStatus,
+                      LocalDate rentalDate, LocalDate returnDate, BigDecimal totalCost, RentalStatus status) {
+        this(id, version,
+                new ClientView(clientId, firstName, lastName, email),
+                new CarView(carId, brand, model, dailyPrice, carStatus),
+                rentalDate, returnDate, totalCost, status);
+    }
+
+    public record ClientView(Long id, String firstName, String lastName, String email) {
+    }
+
+    public record CarView(Long id, String brand, String model, BigDecimal dailyPrice, CarStatus status) {
+    }
+}
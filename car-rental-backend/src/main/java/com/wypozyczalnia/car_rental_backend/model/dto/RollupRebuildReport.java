@@ -0,0 +1,6 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import java.time.Duration;
+
+public record RollupRebuildReport(Duration duration, long rentals, int partitions, int carBuckets, int brandBuckets) {
+}
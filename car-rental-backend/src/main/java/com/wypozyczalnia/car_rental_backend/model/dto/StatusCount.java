@@ -0,0 +1,6 @@
+package com.wypozyczalnia.car_rental_backend.model.dto;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
+
+public record StatusCount(RentalStatus status, long rentals) {
+}
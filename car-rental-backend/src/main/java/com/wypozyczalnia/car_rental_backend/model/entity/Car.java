@@ -9,6 +9,9 @@ import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -16,6 +19,8 @@ import java.util.List;
 
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cars")
 @Table(name = "cars")
 @Data
 @NoArgsConstructor
@@ -23,9 +28,15 @@ import java.util.List;
 public class Car {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cars_seq")
+    @SequenceGenerator(name = "cars_seq", sequenceName = "cars_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank(message = "Brand is required")
     @Column(nullable = false,length = 50)
     private String brand;
@@ -39,6 +50,15 @@ public class Car {
     @Column(name = "daily_price", nullable = false, precision = 10, scale = 2)
     private BigDecimal dailyPrice;
 
+    // Opcjonalne stawki pakietowe: cena za pełny tydzień (7 dni) i pełny miesiąc (30 dni)
+    @Positive(message = "Weekly price must be greater than zero")
+    @Column(name = "weekly_price", precision = 10, scale = 2)
+    private BigDecimal weeklyPrice;
+
+    @Positive(message = "Monthly price must be greater than zero")
+    @Column(name = "monthly_price", precision = 10, scale = 2)
+    private BigDecimal monthlyPrice;
+
     @NotNull(message = "Status is required")
     @Enumerated(EnumType.STRING)
     @Column(nullable = false,length = 20)
@@ -54,4 +74,13 @@ public class Car {
         this.dailyPrice = dailyPrice;
         this.status = status;
     }
+
+    public Car copy() {
+        Car copy = new Car(brand, model, dailyPrice, status);
+        copy.setWeeklyPrice(weeklyPrice);
+        copy.setMonthlyPrice(monthlyPrice);
+        copy.setId(id);
+        copy.setVersion(version);
+        return copy;
+    }
 }
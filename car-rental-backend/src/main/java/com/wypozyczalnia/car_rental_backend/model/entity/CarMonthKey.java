@@ -0,0 +1,24 @@
+package com.wypozyczalnia.car_rental_backend.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarMonthKey implements Serializable {
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    // Pierwszy dzień miesiąca
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+}
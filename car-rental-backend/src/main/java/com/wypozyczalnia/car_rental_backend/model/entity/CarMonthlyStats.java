@@ -0,0 +1,61 @@
+package com.wypozyczalnia.car_rental_backend.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+
+// Przychody i wykorzystanie samochodu w miesiącu kalendarzowym.
+// Wiersze utrzymywane przyrostowo przez RentalRollupService; rentedDays - doby zajętości w danym miesiącu.
+// Persistable - przebudowa zapisuje nowe wiersze INSERT-em, bez SELECT-a przed każdym merge
+@Entity
+@Table(name = "car_monthly_stats")
+@Data
+@NoArgsConstructor
+public class CarMonthlyStats implements Persistable<CarMonthKey> {
+
+    @EmbeddedId
+    private CarMonthKey id;
+
+    @Column(nullable = false)
+    private long rentals;
+
+    @Column(nullable = false)
+    private long cancellations;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "rented_days", nullable = false)
+    private long rentedDays;
+
+    @Transient
+    private boolean persisted;
+
+    public CarMonthlyStats(CarMonthKey id, long rentals, long cancellations, BigDecimal revenue, long rentedDays) {
+        this.id = id;
+        this.rentals = rentals;
+        this.cancellations = cancellations;
+        this.revenue = revenue;
+        this.rentedDays = rentedDays;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
@@ -10,12 +10,17 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clients")
 @Table(name = "clients")
 @Data
 @NoArgsConstructor
@@ -23,9 +28,15 @@ import java.util.List;
 public class Client {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clients_seq")
+    @SequenceGenerator(name = "clients_seq", sequenceName = "clients_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank(message = "First name is required")
     @Size(min = 2, max = 50, message = "First name must contain from 2 to 50 characters")
     @Column(nullable = false,length = 50)
@@ -50,10 +61,19 @@ public class Client {
         this.lastName = lastName;
         this.email = email;
     }
+
+    public Client copy() {
+        Client copy = new Client(firstName, lastName, email);
+        copy.setId(id);
+        copy.setVersion(version);
+        return copy;
+    }
+
     @Override
     public String toString() {
         return "Client{" +
                 "id=" + id +
+                ", version=" + version +
                 ", firstName='" + firstName + '\'' +
                 ", lastName='" + lastName + '\'' +
                 ", email='" + email + '\'' +
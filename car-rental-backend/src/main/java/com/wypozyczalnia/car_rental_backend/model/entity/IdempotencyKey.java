@@ -0,0 +1,62 @@
+package com.wypozyczalnia.car_rental_backend.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+// Zapamiętana odpowiedź dla nagłówka Idempotency-Key; status == null oznacza żądanie w trakcie wykonywania.
+// Persistable wymusza INSERT zamiast merge - drugi zapis tego samego klucza kończy się naruszeniem klucza głównego
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+public class IdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 300)
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    private Integer status;
+
+    @Column(length = 64)
+    private String etag;
+
+    // W migracji kolumna text
+    @Column(length = 1_000_000)
+    private String body;
+
+    // Dla żądania w toku czas zajęcia klucza - po idempotency.claim-lease klucz może przejąć ponowienie
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Transient
+    private boolean persisted;
+
+    public IdempotencyKey(String key, String fingerprint, Instant createdAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
@@ -1,11 +1,13 @@
 package com.wypozyczalnia.car_rental_backend.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -20,9 +22,15 @@ import java.time.Period;
 public class Rental {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rentals_seq")
+    @SequenceGenerator(name = "rentals_seq", sequenceName = "rentals_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotNull(message = "Client is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id", nullable = false)
@@ -33,6 +41,11 @@ public class Rental {
     @JoinColumn(name = "car_id", nullable = false)
     private Car car;
 
+    // Marka z chwili wypożyczenia - agregaty marek nie przesuwają się po edycji samochodu
+    @JsonIgnore
+    @Column(name = "car_brand", nullable = false, length = 50)
+    private String carBrand;
+
     @NotNull(message = "Rental date is required")
     @Column(name = "rental_date", nullable = false)
     private LocalDate rentalDate;
@@ -53,16 +66,25 @@ public class Rental {
     public Rental(Client client, Car car, LocalDate rentalDate, BigDecimal totalCost, LocalDate returnDate) {
         this.client = client;
         this.car = car;
+        this.carBrand = car.getBrand();
         this.rentalDate = rentalDate;
         this.totalCost = totalCost;
         this.returnDate = returnDate;
         this.status = RentalStatus.AKTYWNE;
     }
 
+    @PrePersist
+    void captureCarBrand() {
+        if (carBrand == null && car != null) {
+            carBrand = car.getBrand();
+        }
+    }
+
     @Override
     public String toString() {
         return "Rental{" +
                 "id=" + id +
+                ", version=" + version +
                 ", client=" + client +
                 ", car=" + car +
                 ", rentalDate=" + rentalDate +
@@ -0,0 +1,20 @@
+package com.wypozyczalnia.car_rental_backend.model.event;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+
+public record CarChangedEvent(Long carId, Car car, CarStatus previousStatus) {
+
+    // Zdarzenie przenosi kopię encji - listenery AFTER_COMMIT nie mogą widzieć późniejszych zmian w sesji
+    public static CarChangedEvent changed(Car car, CarStatus previousStatus) {
+        return new CarChangedEvent(car.getId(), car.copy(), previousStatus);
+    }
+
+    public static CarChangedEvent deleted(Long carId, CarStatus previousStatus) {
+        return new CarChangedEvent(carId, null, previousStatus);
+    }
+
+    public boolean isDeleted() {
+        return car == null;
+    }
+}
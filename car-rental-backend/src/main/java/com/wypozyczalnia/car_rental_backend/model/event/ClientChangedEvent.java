@@ -0,0 +1,19 @@
+package com.wypozyczalnia.car_rental_backend.model.event;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+
+public record ClientChangedEvent(Long clientId, Client client) {
+
+    // Jak w CarChangedEvent - kopia encji, niezależna od dalszych zmian w sesji
+    public static ClientChangedEvent changed(Client client) {
+        return new ClientChangedEvent(client.getId(), client.copy());
+    }
+
+    public static ClientChangedEvent deleted(Long clientId) {
+        return new ClientChangedEvent(clientId, null);
+    }
+
+    public boolean isDeleted() {
+        return client == null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.wypozyczalnia.car_rental_backend.model.exception;
+
+public class RollupRebuildInProgressException extends RuntimeException {
+
+    public RollupRebuildInProgressException() {
+        super("Rollup rebuild is already running.");
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.wypozyczalnia.car_rental_backend.model.exception;
+
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String entityName, Long id, Long expectedVersion, Long currentVersion) {
+        super(entityName + " with id " + id + " has version " + currentVersion + ", expected " + expectedVersion + ".");
+    }
+
+}
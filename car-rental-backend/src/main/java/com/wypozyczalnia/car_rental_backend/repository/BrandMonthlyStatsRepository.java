@@ -0,0 +1,32 @@
+package com.wypozyczalnia.car_rental_backend.repository;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.BrandMonthKey;
+import com.wypozyczalnia.car_rental_backend.model.entity.BrandMonthlyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface BrandMonthlyStatsRepository extends JpaRepository<BrandMonthlyStats, BrandMonthKey> {
+
+    @Query("SELECT s FROM BrandMonthlyStats s WHERE s.id.monthStart BETWEEN :from AND :to " +
+            "ORDER BY s.id.monthStart, s.id.brand")
+    List<BrandMonthlyStats> findByMonthRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("INSERT INTO BrandMonthlyStats (id.brand, id.monthStart, rentals, cancellations, revenue, rentedDays) " +
+            "VALUES (:brand, :monthStart, :rentals, :cancellations, :revenue, :rentedDays) " +
+            "ON CONFLICT (id.brand, id.monthStart) DO UPDATE SET rentals = rentals + excluded.rentals, " +
+            "cancellations = cancellations + excluded.cancellations, revenue = revenue + excluded.revenue, " +
+            "rentedDays = rentedDays + excluded.rentedDays")
+    int upsert(@Param("brand") String brand,
+                  @Param("monthStart") LocalDate monthStart,
+                  @Param("rentals") long rentals,
+                  @Param("cancellations") long cancellations,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("rentedDays") long rentedDays);
+}
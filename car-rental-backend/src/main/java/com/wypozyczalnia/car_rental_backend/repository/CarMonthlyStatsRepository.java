@@ -0,0 +1,45 @@
+package com.wypozyczalnia.car_rental_backend.repository;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.CarMonthKey;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarMonthlyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CarMonthlyStatsRepository extends JpaRepository<CarMonthlyStats, CarMonthKey> {
+
+    @Query("SELECT s FROM CarMonthlyStats s WHERE s.id.monthStart BETWEEN :from AND :to " +
+            "ORDER BY s.id.monthStart, s.id.carId")
+    List<CarMonthlyStats> findByMonthRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT s FROM CarMonthlyStats s WHERE s.id.carId = :carId AND s.id.monthStart BETWEEN :from AND :to " +
+            "ORDER BY s.id.monthStart")
+    List<CarMonthlyStats> findByCarAndMonthRange(@Param("carId") Long carId,
+                                                 @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Wstawienie lub przyrost w jednej instrukcji (INSERT ... ON CONFLICT DO UPDATE) w bieżącej transakcji -
+    // równoległe wypożyczenia nie gubią nawzajem swoich zmian, a pierwszy wpis w miesiącu nie potrzebuje
+    // drugiego połączenia
+    @Modifying
+    @Query("INSERT INTO CarMonthlyStats (id.carId, id.monthStart, rentals, cancellations, revenue, rentedDays) " +
+            "VALUES (:carId, :monthStart, :rentals, :cancellations, :revenue, :rentedDays) " +
+            "ON CONFLICT (id.carId, id.monthStart) DO UPDATE SET rentals = rentals + excluded.rentals, " +
+            "cancellations = cancellations + excluded.cancellations, revenue = revenue + excluded.revenue, " +
+            "rentedDays = rentedDays + excluded.rentedDays")
+    int upsert(@Param("carId") Long carId,
+                  @Param("monthStart") LocalDate monthStart,
+                  @Param("rentals") long rentals,
+                  @Param("cancellations") long cancellations,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("rentedDays") long rentedDays);
+
+    // EXCLUSIVE blokuje upserty obu tabel (ROW EXCLUSIVE) do końca transakcji, odczyty pozostają dostępne
+    @Modifying
+    @Query(value = "LOCK TABLE car_monthly_stats, brand_monthly_stats IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+}
@@ -1,15 +1,39 @@
 package com.wypozyczalnia.car_rental_backend.repository;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.BrandCount;
 import com.wypozyczalnia.car_rental_backend.model.entity.Car;
 import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CarRepository extends JpaRepository<Car,Long> {
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Car> findByStatusOrderByBrandAscModelAsc(CarStatus status);
     List<Car> findByBrandIgnoreCaseOrderByModelAsc(String marka);
 
     boolean existsByBrandIgnoreCaseAndModelIgnoreCase(String marka, String model);
 
+    List<Car> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Car> findAllByOrderByBrandAscModelAsc();
+
+    @Query("SELECT new com.wypozyczalnia.car_rental_backend.model.dto.BrandCount(c.brand, COUNT(c)) FROM Car c GROUP BY c.brand")
+    List<BrandCount> countByBrand();
+
+    // Blokada wierszy samochodów na czas transakcji rezerwacji - rezerwacje tego samego samochodu
+    // (także z innych instancji) wykonują się po kolei; kolejność po id zapobiega zakleszczeniom
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Car c WHERE c.id IN :ids ORDER BY c.id")
+    List<Car> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
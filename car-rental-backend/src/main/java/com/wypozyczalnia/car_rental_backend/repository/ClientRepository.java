@@ -1,18 +1,26 @@
 package com.wypozyczalnia.car_rental_backend.repository;
 
 import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
     boolean existsByEmail(String email);
     Optional<Client> findByEmail(String email);
+    List<Client> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 
-    @Query("SELECT COUNT(w) > 0 FROM Rental w WHERE w.client.id = :clientId AND w.status = 'AKTYWNE'")
+    @Query("SELECT c.email FROM Client c WHERE c.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT COUNT(w) > 0 FROM Rental w WHERE w.client.id = :clientId AND w.status IN ('AKTYWNE', 'PRZETERMINOWANE')")
     boolean hasActiveRentals(@Param("clientId") Long clientId);
 }
@@ -0,0 +1,28 @@
+package com.wypozyczalnia.car_rental_backend.repository;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = :status, k.etag = :etag, k.body = :body WHERE k.key = :key")
+    int complete(@Param("key") String key, @Param("status") int status, @Param("etag") String etag, @Param("body") String body);
+
+    // Przejęcie porzuconego klucza: wciąż w toku, zajęty przed staleBefore i z tą samą treścią żądania.
+    // Nowy czas zajęcia - równoległe przejęcia rozstrzyga liczba zmienionych wierszy
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.createdAt = :now WHERE k.key = :key AND k.status IS NULL " +
+            "AND k.fingerprint = :fingerprint AND k.createdAt < :staleBefore")
+    int takeOver(@Param("key") String key, @Param("fingerprint") String fingerprint,
+                 @Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
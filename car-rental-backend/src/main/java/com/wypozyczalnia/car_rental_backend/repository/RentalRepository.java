@@ -1,15 +1,114 @@
 package com.wypozyczalnia.car_rental_backend.repository;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.BookedPeriod;
+import com.wypozyczalnia.car_rental_backend.model.dto.ClientRentalView;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalFact;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalView;
+import com.wypozyczalnia.car_rental_backend.model.dto.StatusCount;
 import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
 import com.wypozyczalnia.car_rental_backend.model.entity.Rental;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RentalRepository extends JpaRepository<Rental, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
     boolean existsByCarIdAndStatus(Long samochodId, RentalStatus status);
+    long countByStatus(RentalStatus status);
+
+    @Query("SELECT new com.wypozyczalnia.car_rental_backend.model.dto.StatusCount(r.status, COUNT(r)) " +
+            "FROM Rental r WHERE r.status IN :statuses GROUP BY r.status")
+    List<StatusCount> countByStatusIn(@Param("statuses") Collection<RentalStatus> statuses);
     List<Rental> findByClientIdOrderByRentalDateDesc(Long klientId);
     List<Rental> findByStatusOrderByRentalDateDesc(RentalStatus status);
+
+    @Query(RentalView.SELECT + "WHERE r.id > :afterId ORDER BY r.id")
+    List<RentalView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(RentalView.SELECT + "WHERE r.status = :status ORDER BY r.rentalDate DESC")
+    List<RentalView> findViewsByStatus(@Param("status") RentalStatus status);
+
+    @Query(RentalView.SELECT + "WHERE r.status IN :statuses ORDER BY r.rentalDate DESC")
+    List<RentalView> findViewsByStatusIn(@Param("statuses") Collection<RentalStatus> statuses);
+
+    // Kolejność zgodna z indeksem idx_rentals_client_history (client_id, rental_date DESC, id DESC) - kolejna strona zaczyna się
+    // od pozycji w indeksie zamiast pomijać wcześniejsze wiersze
+    @Query(ClientRentalView.SELECT + "WHERE r.client.id = :clientId ORDER BY r.rentalDate DESC, r.id DESC")
+    List<ClientRentalView> findClientHistory(@Param("clientId") Long clientId, Limit limit);
+
+    @Query(ClientRentalView.SELECT + "WHERE r.client.id = :clientId AND (r.rentalDate, r.id) < (:rentalDate, :id) " +
+            "ORDER BY r.rentalDate DESC, r.id DESC")
+    List<ClientRentalView> findClientHistoryBefore(@Param("clientId") Long clientId,
+                                                   @Param("rentalDate") LocalDate rentalDate,
+                                                   @Param("id") Long id,
+                                                   Limit limit);
+
+    // Kursor po stronie serwera - wiersze pobierane porcjami, projekcja nie trafia do kontekstu utrwalania
+    @Query(RentalView.SELECT + "ORDER BY r.id")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<RentalView> streamAllViews();
+
+    // Jedna z `partitions` rozłącznych części historii (po identyfikatorze samochodu) - przebudowa agregatów równolegle
+    @Query("SELECT new com.wypozyczalnia.car_rental_backend.model.dto.RentalFact(" +
+            "r.car.id, r.carBrand, r.rentalDate, r.returnDate, r.totalCost, r.status) " +
+            "FROM Rental r WHERE MOD(r.car.id, :partitions) = :partition")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<RentalFact> streamFacts(@Param("partitions") int partitions, @Param("partition") int partition);
+
+    @Query(RentalView.SELECT + "WHERE r.id = :id")
+    Optional<RentalView> findViewById(@Param("id") Long id);
+
+    @Query("SELECT new com.wypozyczalnia.car_rental_backend.model.dto.BookedPeriod(r.id, r.car.id, r.rentalDate, r.returnDate) " +
+            "FROM Rental r WHERE r.status IN :statuses")
+    List<BookedPeriod> findBookedPeriods(@Param("statuses") Collection<RentalStatus> statuses);
+
+    // Ten sam warunek co BookedPeriod.overlaps(from, to, today) - niezwrócone wypożyczenie zajmuje samochód
+    // co najmniej do dziś włącznie
+    @Query("SELECT COUNT(r) > 0 FROM Rental r WHERE r.car.id = :carId AND r.status IN :statuses " +
+            "AND r.rentalDate < :to AND (r.returnDate IS NULL OR r.returnDate > :from OR :from <= :today)")
+    boolean existsOverlappingBooking(@Param("carId") Long carId,
+                                     @Param("statuses") Collection<RentalStatus> statuses,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to,
+                                     @Param("today") LocalDate today);
+
+    // Niezwrócone wypożyczenie rozpoczęte najpóźniej dziś zajmuje samochód (także po planowanym terminie)
+    @Query("SELECT COUNT(r) > 0 FROM Rental r WHERE r.car.id = :carId AND r.status IN :statuses AND r.rentalDate <= :today")
+    boolean existsStartedBooking(@Param("carId") Long carId,
+                                 @Param("statuses") Collection<RentalStatus> statuses,
+                                 @Param("today") LocalDate today);
+
+    @Query("SELECT DISTINCT r.car.id FROM Rental r WHERE r.status IN :statuses AND r.rentalDate <= :today " +
+            "AND r.car.status = 'DOSTEPNY'")
+    List<Long> findAvailableCarIdsWithStartedBookings(@Param("statuses") Collection<RentalStatus> statuses,
+                                                      @Param("today") LocalDate today);
+
+    @Query("SELECT r.id FROM Rental r WHERE r.status = 'AKTYWNE' AND r.returnDate < :today AND r.id > :afterId ORDER BY r.id")
+    List<Long> findOverdueIds(@Param("today") LocalDate today, @Param("afterId") Long afterId, Limit limit);
+
+    // Warunek na status powtórzony w UPDATE - wypożyczenie zwrócone między SELECT a UPDATE nie zostanie nadpisane
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Rental r SET r.status = 'PRZETERMINOWANE', r.version = r.version + 1 " +
+            "WHERE r.id IN :ids AND r.status = 'AKTYWNE' AND r.returnDate < :today")
+    int markOverdue(@Param("ids") Collection<Long> ids, @Param("today") LocalDate today);
 }
@@ -0,0 +1,92 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@RequiredArgsConstructor
+public class AvailableCarsCache {
+
+    private static final Comparator<Car> ORDER = Comparator.comparing(Car::getBrand)
+            .thenComparing(Car::getModel)
+            .thenComparing(Car::getId);
+
+    private final CarRepository carRepository;
+
+    private final Map<Long, Car> byId = new HashMap<>();
+    private final NavigableSet<Car> sorted = new TreeSet<>(ORDER);
+
+    // ReentrantLock zamiast synchronized - wątek wirtualny czekający na zapytanie w load() nie blokuje nośnika
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private boolean loaded;
+
+    // Niemutowalna migawka odczytywana bez blokady. Zmiana tylko ją unieważnia - kopię buduje pierwszy
+    // odczyt po zmianach, więc import publikujący zdarzenie per wiersz nie kopiuje listy przy każdym z nich
+    private volatile List<Car> snapshot;
+
+    public List<Car> getAvailableCars() {
+        List<Car> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        return rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        lock.lock();
+        try {
+            if (!loaded) {
+                return; // widok zostanie zbudowany z bazy przy pierwszym odczycie
+            }
+
+            Car previous = byId.remove(event.carId());
+            if (previous != null) {
+                sorted.remove(previous);
+            }
+
+            if (!event.isDeleted() && CarStatus.DOSTEPNY.equals(event.car().getStatus())) {
+                byId.put(event.carId(), event.car());
+                sorted.add(event.car());
+            }
+
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Car> rebuild() {
+        lock.lock();
+        try {
+            if (!loaded) {
+                for (Car car : carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY)) {
+                    Car copy = car.copy();
+                    byId.put(copy.getId(), copy);
+                    sorted.add(copy);
+                }
+                loaded = true;
+            }
+            if (snapshot == null) {
+                snapshot = List.copyOf(sorted);
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.BookedPeriod;
+import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@RequiredArgsConstructor
+public class CarAvailabilityIndex {
+
+    static final Set<RentalStatus> BOOKED_STATUSES = EnumSet.of(RentalStatus.AKTYWNE, RentalStatus.PRZETERMINOWANE);
+
+    private final RentalRepository rentalRepository;
+
+    // Dla każdego samochodu rozłączne okresy rezerwacji posortowane po dacie początku
+    private final Map<Long, NavigableMap<LocalDate, BookedPeriod>> bookingsByCar = new ConcurrentHashMap<>();
+    private final Map<Long, BookedPeriod> bookingsByRental = new ConcurrentHashMap<>();
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public boolean isAvailable(Long carId, LocalDate from, LocalDate to) {
+        ensureLoaded();
+
+        NavigableMap<LocalDate, BookedPeriod> bookings = bookingsByCar.get(carId);
+        if (bookings == null) {
+            return true;
+        }
+        synchronized (bookings) {
+            return findOverlap(bookings, from, to) == null;
+        }
+    }
+
+    public boolean hasBookings(Long carId) {
+        ensureLoaded();
+
+        NavigableMap<LocalDate, BookedPeriod> bookings = bookingsByCar.get(carId);
+        if (bookings == null) {
+            return false;
+        }
+        synchronized (bookings) {
+            return !bookings.isEmpty();
+        }
+    }
+
+    // Sprawdzenie i wpis są atomowe dla danego samochodu; wycofanie transakcji zwalnia rezerwację
+    public void reserve(Long rentalId, Long carId, LocalDate from, LocalDate to) {
+        ensureLoaded();
+
+        BookedPeriod period = new BookedPeriod(rentalId, carId, from, to);
+        NavigableMap<LocalDate, BookedPeriod> bookings = bookingsByCar.computeIfAbsent(carId, id -> new TreeMap<>());
+        synchronized (bookings) {
+            if (findOverlap(bookings, from, to) != null) {
+                throw new IllegalStateException("Car already rented");
+            }
+            bookings.put(from, period);
+            bookingsByRental.put(rentalId, period);
+        }
+
+        afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK, () -> remove(period));
+    }
+
+    public void release(Long rentalId) {
+        afterCompletion(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            BookedPeriod period = bookingsByRental.get(rentalId);
+            if (period != null) {
+                remove(period);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.isDeleted()) {
+            NavigableMap<LocalDate, BookedPeriod> bookings = bookingsByCar.remove(event.carId());
+            if (bookings != null) {
+                synchronized (bookings) {
+                    bookings.values().forEach(period -> bookingsByRental.remove(period.rentalId()));
+                }
+            }
+        }
+    }
+
+    // Okresy są rozłączne, więc wystarczy sprawdzić ostatni okres rozpoczynający się przed końcem zapytania.
+    // Okres po planowanym terminie zostaje w indeksie do zwrotu i trwa co najmniej do dziś - takie okresy
+    // są najwcześniejsze, więc dodatkowo sprawdzany jest pierwszy
+    private BookedPeriod findOverlap(NavigableMap<LocalDate, BookedPeriod> bookings, LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        Map.Entry<LocalDate, BookedPeriod> candidate = bookings.lowerEntry(to);
+        if (candidate != null && candidate.getValue().overlaps(from, to, today)) {
+            return candidate.getValue();
+        }
+        Map.Entry<LocalDate, BookedPeriod> first = bookings.firstEntry();
+        if (first != null && first.getValue().overlaps(from, to, today)) {
+            return first.getValue();
+        }
+        return null;
+    }
+
+    private void remove(BookedPeriod period) {
+        NavigableMap<LocalDate, BookedPeriod> bookings = bookingsByCar.get(period.carId());
+        if (bookings != null) {
+            synchronized (bookings) {
+                bookings.remove(period.from(), period);
+            }
+        }
+        bookingsByRental.remove(period.rentalId(), period);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    // Ładowanie wykonuje zapytanie, więc blokada nie może przypinać wątku wirtualnego do nośnika
+    private void load() {
+        loadLock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            for (BookedPeriod period : rentalRepository.findBookedPeriods(BOOKED_STATUSES)) {
+                bookingsByCar.computeIfAbsent(period.carId(), id -> new TreeMap<>()).put(period.from(), period);
+                bookingsByRental.put(period.rentalId(), period);
+            }
+            loaded = true;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void afterCompletion(int expectedStatus, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (expectedStatus == TransactionSynchronization.STATUS_COMMITTED) {
+                action.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == expectedStatus) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
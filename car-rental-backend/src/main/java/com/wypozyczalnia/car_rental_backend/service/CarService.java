@@ -1,32 +1,81 @@
 package com.wypozyczalnia.car_rental_backend.service;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.CursorPage;
 import com.wypozyczalnia.car_rental_backend.model.entity.Car;
 import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
 import com.wypozyczalnia.car_rental_backend.model.exception.CarNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
 import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Timed(value = "service.cars", histogram = true)
 public class CarService {
 
     private final CarRepository carRepository;
+    private final AvailableCarsCache availableCarsCache;
+    private final CarAvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Car> findAll() {
         return carRepository.findAll();
     }
 
+    public CursorPage<Car> findPage(Long after, int limit) {
+        CursorPage.validateLimit(limit);
+
+        List<Car> rows = carRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, Car::getId);
+    }
+
     public Car findById(Long id) {
         return carRepository.findById(id)
                 .orElseThrow(() -> new CarNotFoundException(id));
     }
 
+    public Map<Long, Car> findAllById(Collection<Long> ids) {
+        Map<Long, Car> cars = carRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+
+        for (Long id : ids) {
+            if (!cars.containsKey(id)) {
+                throw new CarNotFoundException(id);
+            }
+        }
+        return cars;
+    }
+
+    // Wiersze zablokowane do końca bieżącej transakcji (SELECT ... FOR UPDATE)
+    @Transactional
+    public Map<Long, Car> lockForBooking(Collection<Long> ids) {
+        Map<Long, Car> cars = carRepository.findAllByIdForUpdate(ids).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+
+        for (Long id : ids) {
+            if (!cars.containsKey(id)) {
+                throw new CarNotFoundException(id);
+            }
+        }
+        return cars;
+    }
+
     @Transactional
     public Car save(Car car) {
         validateSamochod(car);
@@ -35,7 +84,10 @@ public class CarService {
             car.setStatus(CarStatus.DOSTEPNY);
         }
 
-        return carRepository.save(car);
+        Car saved = carRepository.save(car);
+        eventPublisher.publishEvent(CarChangedEvent.changed(saved, null));
+
+        return saved;
     }
 
     @Transactional
@@ -44,13 +96,20 @@ public class CarService {
                 .orElseThrow(() -> new CarNotFoundException(id));
 
         validateSamochod(carUpdate);
+        checkVersion(existing, carUpdate.getVersion());
 
+        CarStatus previousStatus = existing.getStatus();
         existing.setBrand(carUpdate.getBrand());
         existing.setModel(carUpdate.getModel());
         existing.setDailyPrice(carUpdate.getDailyPrice());
+        existing.setWeeklyPrice(carUpdate.getWeeklyPrice());
+        existing.setMonthlyPrice(carUpdate.getMonthlyPrice());
         existing.setStatus(carUpdate.getStatus());
 
-        return carRepository.save(existing);
+        Car updated = carRepository.save(existing);
+        eventPublisher.publishEvent(CarChangedEvent.changed(updated, previousStatus));
+
+        return updated;
     }
 
     @Transactional
@@ -62,24 +121,81 @@ public class CarService {
             throw new IllegalStateException("Cannot delete rented car");
         }
 
+        if (availabilityIndex.hasBookings(id)) {
+            throw new IllegalStateException("Cannot delete car with booked rentals");
+        }
+
         carRepository.deleteById(id);
+        eventPublisher.publishEvent(CarChangedEvent.deleted(id, car.getStatus()));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Car> findAvailable() {
-        return carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY);
+        return availableCarsCache.getAvailableCars();
     }
 
-    @Transactional
-    public void markAsRented(Long id) {
-        Car car = carRepository.findById(id)
-                .orElseThrow(() -> new CarNotFoundException(id));
+    public List<Car> findAvailable(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Date range must have 'from' earlier than 'to'");
+        }
 
+        return carRepository.findAllByOrderByBrandAscModelAsc().stream()
+                .filter(car -> availabilityIndex.isAvailable(car.getId(), from, to))
+                .toList();
+    }
+
+    // Status porównywany na wierszu zablokowanym do końca transakcji i zapisywany przez encję (@Version) -
+    // cache drugiego poziomu aktualizuje tylko ten samochód zamiast unieważniać cały region
+    @Transactional
+    public Car markAsRented(Long id) {
+        Car car = lockForBooking(List.of(id)).get(id);
         if (!CarStatus.DOSTEPNY.equals(car.getStatus())) {
             throw new IllegalStateException("Car is not available for rental");
         }
 
         car.setStatus(CarStatus.WYPOZYCZONY);
         carRepository.save(car);
+        eventPublisher.publishEvent(CarChangedEvent.changed(car, CarStatus.DOSTEPNY));
+        return car;
+    }
+
+    // Niedostępny którykolwiek samochód wycofuje całą transakcję
+    @Transactional
+    public void markAllAsRented(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Collection<Car> cars = lockForBooking(ids).values();
+        if (cars.stream().anyMatch(car -> !CarStatus.DOSTEPNY.equals(car.getStatus()))) {
+            throw new IllegalStateException("Car is not available for rental");
+        }
+
+        for (Car car : cars) {
+            car.setStatus(CarStatus.WYPOZYCZONY);
+            eventPublisher.publishEvent(CarChangedEvent.changed(car, CarStatus.DOSTEPNY));
+        }
+        carRepository.saveAll(cars);
+    }
+
+    // Przejęcie samochodów dla rezerwacji, które właśnie się rozpoczęły - to samo porównanie co
+    // w markAsRented, ale samochód przejęty w międzyczasie jest pomijany zamiast wycofywać całość
+    @Transactional
+    public int markStartedAsRented(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        int claimed = 0;
+        for (Car car : carRepository.findAllByIdForUpdate(ids)) {
+            if (CarStatus.DOSTEPNY.equals(car.getStatus())) {
+                car.setStatus(CarStatus.WYPOZYCZONY);
+                carRepository.save(car);
+                eventPublisher.publishEvent(CarChangedEvent.changed(car, CarStatus.DOSTEPNY));
+                claimed++;
+            }
+        }
+        return claimed;
     }
 
     @Transactional
@@ -87,8 +203,10 @@ public class CarService {
         Car car = carRepository.findById(id)
                 .orElseThrow(() -> new CarNotFoundException(id));
 
+        CarStatus previousStatus = car.getStatus();
         car.setStatus(CarStatus.DOSTEPNY);
         carRepository.save(car);
+        eventPublisher.publishEvent(CarChangedEvent.changed(car, previousStatus));
     }
 
     public boolean isAvailable(Long id) {
@@ -97,7 +215,13 @@ public class CarService {
                 .orElse(false);
     }
 
-    private void validateSamochod(Car car) {
+    private void checkVersion(Car existing, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+            throw new VersionConflictException("Car", existing.getId(), expectedVersion, existing.getVersion());
+        }
+    }
+
+    void validateSamochod(Car car) {
         if (car.getBrand() == null || car.getBrand().trim().isEmpty()) {
             throw new IllegalArgumentException("Car Brand is required");
         }
@@ -109,5 +233,13 @@ public class CarService {
         if (car.getDailyPrice() == null || car.getDailyPrice().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Daily Price must be greater than zero");
         }
+
+        if (car.getWeeklyPrice() != null && car.getWeeklyPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Weekly Price must be greater than zero");
+        }
+
+        if (car.getMonthlyPrice() != null && car.getMonthlyPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Monthly Price must be greater than zero");
+        }
     }
 }
@@ -0,0 +1,156 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.CarStatusChange;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Rozsyła zmiany statusu samochodów do subskrybentów SSE po zatwierdzeniu transakcji.
+// Listener tylko wrzuca zdarzenie do ograniczonego bufora subskrybenta - wysyłką zajmuje się osobny wątek,
+// więc wolny klient nie spowalnia transakcji ani pozostałych subskrybentów
+@Slf4j
+@Component
+public class CarStatusBroadcaster {
+
+    static final String STATUS_EVENT = "status";
+    static final String RESYNC_EVENT = "resync";
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Executor executor;
+    private final int bufferSize;
+    private final Duration timeout;
+
+    @Autowired
+    public CarStatusBroadcaster(@Value("${cars.events.buffer-size:256}") int bufferSize,
+                                @Value("${cars.events.timeout:30m}") Duration timeout) {
+        this(Executors.newVirtualThreadPerTaskExecutor(), bufferSize, timeout);
+    }
+
+    CarStatusBroadcaster(Executor executor, int bufferSize, Duration timeout) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Event buffer size must be positive");
+        }
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.add(subscriber);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        CarStatusChange change = toStatusChange(event);
+        if (change == null || subscribers.isEmpty()) {
+            return;
+        }
+
+        Message message = new Message(sequence.incrementAndGet(), change);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+            if (subscriber.draining.compareAndSet(false, true)) {
+                executor.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+
+    // Tylko zmiany statusu - edycja marki czy ceny nie jest przejściem stanu
+    static CarStatusChange toStatusChange(CarChangedEvent event) {
+        if (event.isDeleted()) {
+            return new CarStatusChange(event.carId(), null, event.previousStatus(), null);
+        }
+        if (Objects.equals(event.previousStatus(), event.car().getStatus())) {
+            return null;
+        }
+        return new CarStatusChange(event.carId(), event.car().getVersion(), event.previousStatus(), event.car().getStatus());
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            try {
+                if (subscriber.overflowed.getAndSet(false)) {
+                    subscriber.emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(""));
+                }
+                Message message;
+                while ((message = subscriber.queue.poll()) != null) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(message.id()))
+                            .name(STATUS_EVENT)
+                            .data(message.change(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping car status subscriber: {}", e.getMessage());
+                subscribers.remove(subscriber);
+                subscriber.queue.clear();
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+            subscriber.draining.set(false);
+            // Zdarzenie dodane między ostatnim poll() a zwolnieniem flagi - kontynuuje ten sam wątek
+        } while ((!subscriber.queue.isEmpty() || subscriber.overflowed.get())
+                && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private record Message(long id, CarStatusChange change) {
+    }
+
+    private record Subscriber(SseEmitter emitter, Queue<Message> queue, AtomicBoolean draining, AtomicBoolean overflowed) {
+
+        Subscriber(SseEmitter emitter, Queue<Message> queue) {
+            this(emitter, queue, new AtomicBoolean(), new AtomicBoolean());
+        }
+
+        // Przepełniony bufor jest czyszczony, a klient dostaje zdarzenie resync i pobiera listę od nowa
+        void offer(Message message) {
+            if (!queue.offer(message)) {
+                overflowed.set(true);
+                queue.clear();
+                queue.offer(message);
+            }
+        }
+    }
+}
@@ -1,34 +1,60 @@
 package com.wypozyczalnia.car_rental_backend.service;
+import com.wypozyczalnia.car_rental_backend.model.dto.CursorPage;
 import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import com.wypozyczalnia.car_rental_backend.model.event.ClientChangedEvent;
 import com.wypozyczalnia.car_rental_backend.model.exception.ClientNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
 import com.wypozyczalnia.car_rental_backend.repository.ClientRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Timed(value = "service.clients", histogram = true)
 public class ClientService {
 
     private final ClientRepository clientRepository;
-
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-            "^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$"
-    );
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Client> findAll() {
         return clientRepository.findAll();
     }
 
+    public CursorPage<Client> findPage(Long after, int limit) {
+        CursorPage.validateLimit(limit);
+
+        List<Client> rows = clientRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, Client::getId);
+    }
+
     public Client findById(Long id) {
         return clientRepository.findById(id)
                 .orElseThrow(() -> new ClientNotFoundException(id));
     }
 
+    public Map<Long, Client> findAllById(Collection<Long> ids) {
+        Map<Long, Client> clients = clientRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+
+        for (Long id : ids) {
+            if (!clients.containsKey(id)) {
+                throw new ClientNotFoundException(id);
+            }
+        }
+        return clients;
+    }
+
     @Transactional
     public Client save(Client client) {
         validateClient(client);
@@ -38,11 +64,10 @@ public class ClientService {
                     String.format("Client with email %s already exists", client.getEmail()));
         }
 
-        client.setFirstName(normalizeText(client.getFirstName()));
-        client.setLastName(normalizeText(client.getLastName()));
-        client.setEmail(client.getEmail().toLowerCase().trim());
+        normalizeClient(client);
 
         Client saved = clientRepository.save(client);
+        eventPublisher.publishEvent(ClientChangedEvent.changed(saved));
 
         return saved;
     }
@@ -55,6 +80,10 @@ public class ClientService {
 
         validateClient(clientUpdate);
 
+        if (clientUpdate.getVersion() != null && !clientUpdate.getVersion().equals(existing.getVersion())) {
+            throw new VersionConflictException("Client", id, clientUpdate.getVersion(), existing.getVersion());
+        }
+
         if (!existing.getEmail().equalsIgnoreCase(clientUpdate.getEmail())) {
             if (clientRepository.existsByEmail(clientUpdate.getEmail())) {
                 throw new IllegalArgumentException(
@@ -62,11 +91,12 @@ public class ClientService {
             }
         }
 
-        existing.setFirstName(normalizeText(clientUpdate.getFirstName()));
-        existing.setLastName(normalizeText(clientUpdate.getLastName()));
-        existing.setEmail(clientUpdate.getEmail().toLowerCase().trim());
+        existing.setFirstName(ClientValidator.normalizeName(clientUpdate.getFirstName()));
+        existing.setLastName(ClientValidator.normalizeName(clientUpdate.getLastName()));
+        existing.setEmail(ClientValidator.normalizeEmail(clientUpdate.getEmail()));
 
         Client updated = clientRepository.save(existing);
+        eventPublisher.publishEvent(ClientChangedEvent.changed(updated));
 
         return updated;
     }
@@ -78,66 +108,14 @@ public class ClientService {
         }
 
         clientRepository.deleteById(id);
+        eventPublisher.publishEvent(ClientChangedEvent.deleted(id));
     }
 
-    private void validateClient(Client client) {
-
-        if (client.getFirstName() == null || client.getFirstName().trim().isEmpty()) {
-            throw new IllegalArgumentException("First name is required");
-        }
-
-        if (client.getFirstName().trim().length() < 2) {
-            throw new IllegalArgumentException("First name must be at least 2 characters long");
-        }
-
-        if (client.getFirstName().trim().length() > 50) {
-            throw new IllegalArgumentException("First name cannot be longer than 50 characters");
-        }
-
-        if (client.getLastName() == null || client.getLastName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Last name is required");
-        }
-
-        if (client.getLastName().trim().length() < 2) {
-            throw new IllegalArgumentException("Last name must be at least 2 characters long");
-        }
-
-        if (client.getLastName().trim().length() > 50) {
-            throw new IllegalArgumentException("Last name cannot be longer than 50 characters");
-        }
-
-        if (client.getEmail() == null || client.getEmail().trim().isEmpty()) {
-            throw new IllegalArgumentException("Email is required");
-        }
-
-        if (!EMAIL_PATTERN.matcher(client.getEmail().trim()).matches()) {
-            throw new IllegalArgumentException("Email has invalid format");
-        }
-
-        if (client.getEmail().trim().length() > 255) {
-            throw new IllegalArgumentException("Email cannot be longer than 255 characters");
-        }
-
-        if (containsInvalidCharacters(client.getFirstName()) ||
-                containsInvalidCharacters(client.getLastName())) {
-            throw new IllegalArgumentException("First name and last name can only contain letters, spaces, hyphens and apostrophes");
-        }
+    void normalizeClient(Client client) {
+        ClientValidator.normalize(client);
     }
 
-    private String normalizeText(String text) {
-        if (text == null) return null;
-
-        String normalized = text.trim().replaceAll("\\s+", " ");
-        if (normalized.isEmpty()) return normalized;
-
-        return normalized.substring(0, 1).toUpperCase() +
-                normalized.substring(1).toLowerCase();
-    }
-
-    private boolean containsInvalidCharacters(String text) {
-        if (text == null) return false;
-
-        return !text.matches("[\\p{L}\\s\\-']+");
+    void validateClient(Client client) {
+        ClientValidator.validate(client);
     }
 }
-
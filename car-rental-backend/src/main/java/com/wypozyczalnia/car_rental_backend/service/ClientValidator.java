@@ -0,0 +1,202 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+
+// Walidacja i normalizacja danych klienta w jednym przejściu po znakach, bez wyrażeń regularnych
+// i bez kopii pośrednich - przy imporcie wywoływana dla każdego wiersza
+final class ClientValidator {
+
+    static final int MIN_NAME_LENGTH = 2;
+    static final int MAX_NAME_LENGTH = 50;
+    static final int MAX_EMAIL_LENGTH = 255;
+
+    private ClientValidator() {
+    }
+
+    static void validate(Client client) {
+        validateName(client.getFirstName(), "First name");
+        validateName(client.getLastName(), "Last name");
+        validateEmail(client.getEmail());
+
+        if (!hasOnlyNameCharacters(client.getFirstName()) || !hasOnlyNameCharacters(client.getLastName())) {
+            throw new IllegalArgumentException("First name and last name can only contain letters, spaces, hyphens and apostrophes");
+        }
+    }
+
+    static void normalize(Client client) {
+        client.setFirstName(normalizeName(client.getFirstName()));
+        client.setLastName(normalizeName(client.getLastName()));
+        client.setEmail(normalizeEmail(client.getEmail()));
+    }
+
+    // Przycięcie, zwinięcie białych znaków do pojedynczej spacji, pierwsza litera wielka, reszta małe.
+    // Jeśli tekst jest już w tej postaci, zwracana jest ta sama instancja
+    static String normalizeName(String text) {
+        if (text == null) return null;
+
+        int start = trimStart(text);
+        int end = trimEnd(text, start);
+        if (start == end) {
+            return "";
+        }
+        if (isNormalizedName(text, start, end)) {
+            return start == 0 && end == text.length() ? text : text.substring(start, end);
+        }
+
+        StringBuilder normalized = new StringBuilder(end - start);
+        boolean previousWhitespace = false;
+        for (int i = start; i < end; ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (isWhitespace(codePoint)) {
+                if (!previousWhitespace) {
+                    normalized.append(' ');
+                }
+                previousWhitespace = true;
+                continue;
+            }
+            previousWhitespace = false;
+            normalized.appendCodePoint(normalized.isEmpty()
+                    ? Character.toUpperCase(codePoint)
+                    : Character.toLowerCase(codePoint));
+        }
+        return normalized.toString();
+    }
+
+    // Po walidacji email zawiera wyłącznie znaki ASCII
+    static String normalizeEmail(String email) {
+        if (email == null) return null;
+
+        int start = trimStart(email);
+        int end = trimEnd(email, start);
+        int firstUpper = -1;
+        for (int i = start; i < end; i++) {
+            if (Character.isUpperCase(email.charAt(i))) {
+                firstUpper = i;
+                break;
+            }
+        }
+        if (firstUpper < 0) {
+            return start == 0 && end == email.length() ? email : email.substring(start, end);
+        }
+
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = i < firstUpper ? email.charAt(i) : Character.toLowerCase(email.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static void validateName(String name, String field) {
+        int start = name == null ? 0 : trimStart(name);
+        int length = name == null ? 0 : trimEnd(name, start) - start;
+
+        if (length == 0) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        if (length < MIN_NAME_LENGTH) {
+            throw new IllegalArgumentException(field + " must be at least " + MIN_NAME_LENGTH + " characters long");
+        }
+        if (length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException(field + " cannot be longer than " + MAX_NAME_LENGTH + " characters");
+        }
+    }
+
+    private static void validateEmail(String email) {
+        int start = email == null ? 0 : trimStart(email);
+        int end = email == null ? 0 : trimEnd(email, start);
+
+        if (start == end) {
+            throw new IllegalArgumentException("Email is required");
+        }
+        if (!isValidEmail(email, start, end)) {
+            throw new IllegalArgumentException("Email has invalid format");
+        }
+        if (end - start > MAX_EMAIL_LENGTH) {
+            throw new IllegalArgumentException("Email cannot be longer than " + MAX_EMAIL_LENGTH + " characters");
+        }
+    }
+
+    // Odpowiednik ^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\.[A-Za-z]{2,})$
+    private static boolean isValidEmail(String email, int start, int end) {
+        int at = -1;
+        int lastDot = -1;
+        for (int i = start; i < end; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                if (at >= 0) return false;
+                at = i;
+            } else if (c == '.') {
+                if (at >= 0) lastDot = i;
+            } else if (!isAsciiLetterOrDigit(c) && !(at < 0 && (c == '+' || c == '_')) && c != '-') {
+                return false;
+            }
+        }
+
+        if (at <= start || lastDot <= at + 1 || end - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < end; i++) {
+            if (!isAsciiLetter(email.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // Odpowiednik [\p{L}\s\-']+ sprawdzanego na nieprzyciętym tekście
+    private static boolean hasOnlyNameCharacters(String text) {
+        if (text == null) return true;
+
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isLetter(codePoint) && !isWhitespace(codePoint) && codePoint != '-' && codePoint != '\'') {
+                return false;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return true;
+    }
+
+    private static boolean isNormalizedName(String text, int start, int end) {
+        boolean previousWhitespace = false;
+        for (int i = start; i < end; ) {
+            int codePoint = text.codePointAt(i);
+            if (isWhitespace(codePoint)) {
+                if (codePoint != ' ' || previousWhitespace) return false;
+                previousWhitespace = true;
+            } else {
+                previousWhitespace = false;
+                int expected = i == start ? Character.toUpperCase(codePoint) : Character.toLowerCase(codePoint);
+                if (codePoint != expected) return false;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return true;
+    }
+
+    // Granice zgodne z String.trim()
+    private static int trimStart(String text) {
+        int start = 0;
+        while (start < text.length() && text.charAt(start) <= ' ') start++;
+        return start;
+    }
+
+    private static int trimEnd(String text, int start) {
+        int end = text.length();
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        return end;
+    }
+
+    // Klasa \s bez flagi UNICODE_CHARACTER_CLASS
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+}
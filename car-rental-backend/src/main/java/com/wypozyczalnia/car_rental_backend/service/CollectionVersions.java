@@ -0,0 +1,69 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import com.wypozyczalnia.car_rental_backend.model.event.ClientChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Rosnące wersje kolekcji dla warunkowych GET - niezmieniona kolekcja odpowiada 304 bez zapytania do bazy.
+// Wersja rośnie po zatwierdzeniu zapisu, więc odczyt z nowym ETagiem zawsze widzi zatwierdzone dane.
+// Znacznik startu w ETagu unieważnia ETagi sprzed restartu, gdy liczniki zaczynają od zera
+@Component
+public class CollectionVersions {
+
+    public enum Resource {
+        CARS, RENTALS
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Resource, AtomicLong> versions = new EnumMap<>(Resource.class);
+
+    public CollectionVersions() {
+        for (Resource resource : Resource.values()) {
+            versions.put(resource, new AtomicLong());
+        }
+    }
+
+    public String etag(Resource resource) {
+        return "\"" + resource.name().toLowerCase() + "-" + epoch + "-" + versions.get(resource).get() + "\"";
+    }
+
+    public void rentalsChanged() {
+        afterCommit(() -> bump(Resource.RENTALS));
+    }
+
+    // Widoki wypożyczeń zawierają dane samochodu i klienta
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        bump(Resource.CARS);
+        bump(Resource.RENTALS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientChanged(ClientChangedEvent event) {
+        bump(Resource.RENTALS);
+    }
+
+    private void bump(Resource resource) {
+        versions.get(resource).incrementAndGet();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wypozyczalnia.car_rental_backend.model.dto.DataFormat;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalView;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExportService {
+
+    static final String RENTALS_CSV_HEADER = "id,clientId,firstName,lastName,email,carId,brand,model," +
+            "rentalDate,returnDate,totalCost,status";
+
+    private final RentalRepository rentalRepository;
+    private final ObjectMapper objectMapper;
+
+    // Strumień musi być konsumowany wewnątrz transakcji - kursor zamykany jest razem ze strumieniem
+    public long exportRentals(OutputStream output, DataFormat format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (format == DataFormat.CSV) {
+            writer.write(RENTALS_CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<RentalView> rentals = rentalRepository.streamAllViews()) {
+            for (RentalView rental : (Iterable<RentalView>) rentals::iterator) {
+                writer.write(format == DataFormat.CSV ? toCsv(rental) : toJson(rental));
+                writer.write('\n');
+                count++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return count;
+    }
+
+    private String toJson(RentalView rental) {
+        try {
+            return objectMapper.writeValueAsString(rental);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toCsv(RentalView rental) {
+        return String.join(",",
+                csv(rental.id()),
+                csv(rental.client().id()),
+                csv(rental.client().firstName()),
+                csv(rental.client().lastName()),
+                csv(rental.client().email()),
+                csv(rental.car().id()),
+                csv(rental.car().brand()),
+                csv(rental.car().model()),
+                csv(rental.rentalDate()),
+                csv(rental.returnDate()),
+                csv(rental.totalCost() == null ? null : rental.totalCost().toPlainString()),
+                csv(rental.status() == null ? null : rental.status().name()));
+    }
+
+    static String csv(Object value) {
+        String text = Objects.toString(value, "");
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,228 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wypozyczalnia.car_rental_backend.model.entity.IdempotencyKey;
+import com.wypozyczalnia.car_rental_backend.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+// Ponowienie żądania z tym samym Idempotency-Key dostaje zapamiętaną odpowiedź zamiast drugiego wykonania.
+// Odpowiedzi trzymane w pamięci (ograniczony rozmiar, wygasanie po TTL); z idempotency.persistence.enabled
+// także w tabeli idempotency_keys, dzięki czemu klucz zajęty na jednej instancji widzą pozostałe
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+    private static final int IN_PROGRESS = 0;
+
+    private final IdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newTransaction;
+    private final Duration ttl;
+    private final Duration claimLease;
+    private final boolean persistent;
+    private final Cache<String, StoredResponse> responses;
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.ttl:24h}") Duration ttl,
+                              @Value("${idempotency.max-entries:100000}") long maxEntries,
+                              @Value("${idempotency.persistence.enabled:false}") boolean persistent,
+                              @Value("${idempotency.claim-lease:30s}") Duration claimLease) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.claimLease = claimLease;
+        this.persistent = persistent;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Klucz jest zajmowany przed wykonaniem akcji - równoległe ponowienie dostaje 409 zamiast drugiej rezerwacji.
+    // Ten sam klucz z inną treścią żądania to błąd klienta (422). Odpowiedzi 5xx i wyjątki zwalniają klucz
+    public ResponseEntity<?> execute(String key, String scope, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String storeKey = scope + ":" + key;
+        String fingerprint = fingerprint(scope, request);
+        StoredResponse claim = new StoredResponse(fingerprint, IN_PROGRESS, null, null);
+
+        StoredResponse existing = responses.asMap().putIfAbsent(storeKey, claim);
+        if (existing == null && persistent) {
+            boolean claimed = false;
+            try {
+                existing = claimInDatabase(storeKey, fingerprint);
+                claimed = existing == null;
+            } finally {
+                // Także gdy baza niedostępna - inaczej klucz odpowiadałby 409 do końca TTL
+                if (!claimed) {
+                    responses.asMap().remove(storeKey, claim);
+                }
+            }
+        }
+        if (existing != null) {
+            return replay(existing, fingerprint);
+        }
+
+        ResponseEntity<?> response = null;
+        try {
+            response = action.get();
+        } finally {
+            if (response == null || response.getStatusCode().is5xxServerError()) {
+                release(storeKey, claim);
+            }
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            return response;
+        }
+
+        StoredResponse stored = new StoredResponse(fingerprint, response.getStatusCode().value(),
+                response.getHeaders().getETag(), serialize(response.getBody()));
+        responses.put(storeKey, stored);
+        if (persistent) {
+            // Akcja jest już zatwierdzona - nieudany zapis odpowiedzi nie zmienia wyniku żądania,
+            // a klucz w bazie zwalnia się po upływie dzierżawy
+            try {
+                newTransaction.executeWithoutResult(status ->
+                        repository.complete(storeKey, stored.status(), stored.etag(), stored.body()));
+            } catch (RuntimeException e) {
+                log.warn("Cannot store idempotent response for {}: {}", storeKey, e.getMessage());
+            }
+        }
+        return stored.toResponse(false);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:10m}")
+    public void deleteExpired() {
+        if (persistent) {
+            int deleted = newTransaction.execute(status -> repository.deleteCreatedBefore(Instant.now().minus(ttl)));
+            log.debug("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse existing, String fingerprint) {
+        if (!existing.fingerprint().equals(fingerprint)) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        if (existing.status() == IN_PROGRESS) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return existing.toResponse(true);
+    }
+
+    // null - klucz zajęty przez to żądanie; w przeciwnym razie stan zapisany wcześniej (także przez inną instancję).
+    // Żądanie w toku dłużej niż claimLease uznawane jest za porzucone (instancja padła w trakcie akcji)
+    private StoredResponse claimInDatabase(String storeKey, String fingerprint) {
+        try {
+            newTransaction.executeWithoutResult(status ->
+                    repository.saveAndFlush(new IdempotencyKey(storeKey, fingerprint, Instant.now())));
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyKey row = repository.findById(storeKey).orElse(null);
+            if (row == null) {
+                // Wiersz usunięty między wstawieniem a odczytem - traktowany jak trwające żądanie
+                return new StoredResponse(fingerprint, IN_PROGRESS, null, null);
+            }
+            StoredResponse stored = new StoredResponse(row.getFingerprint(),
+                    row.getStatus() == null ? IN_PROGRESS : row.getStatus(), row.getEtag(), row.getBody());
+            if (stored.status() != IN_PROGRESS) {
+                responses.put(storeKey, stored);
+            } else if (stored.fingerprint().equals(fingerprint) && takeOver(storeKey, fingerprint)) {
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private boolean takeOver(String storeKey, String fingerprint) {
+        Instant now = Instant.now();
+        Integer updated = newTransaction.execute(status ->
+                repository.takeOver(storeKey, fingerprint, now, now.minus(claimLease)));
+        if (updated == null || updated == 0) {
+            return false;
+        }
+        log.info("Took over abandoned idempotency key {}", storeKey);
+        return true;
+    }
+
+    private void release(String storeKey, StoredResponse claim) {
+        responses.asMap().remove(storeKey, claim);
+        if (persistent) {
+            newTransaction.executeWithoutResult(status -> repository.deleteById(storeKey));
+        }
+    }
+
+    // Odpowiedź serializowana raz - pierwsza odpowiedź i powtórzenia mają identyczną treść
+    private String serialize(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent response", e);
+        }
+    }
+
+    String fingerprint(String scope, Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private record StoredResponse(String fingerprint, int status, String etag, String body) {
+
+        ResponseEntity<?> toResponse(boolean replayed) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+            if (etag != null) {
+                builder.eTag(etag);
+            }
+            if (replayed) {
+                builder.header(REPLAYED_HEADER, "true");
+            }
+            if (body == null) {
+                return builder.build();
+            }
+            return builder.contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wypozyczalnia.car_rental_backend.model.dto.DataFormat;
+import com.wypozyczalnia.car_rental_backend.model.dto.ImportReport;
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import com.wypozyczalnia.car_rental_backend.model.event.ClientChangedEvent;
+import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
+import com.wypozyczalnia.car_rental_backend.repository.ClientRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@Service
+public class ImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final CarService carService;
+    private final ClientService clientService;
+    private final CarRepository carRepository;
+    private final ClientRepository clientRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public ImportService(CarService carService,
+                         ClientService clientService,
+                         CarRepository carRepository,
+                         ClientRepository clientRepository,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         ApplicationEventPublisher eventPublisher,
+                         ObjectMapper objectMapper,
+                         @Value("${import.batch-size:500}") int batchSize) {
+        this.carService = carService;
+        this.clientService = clientService;
+        this.carRepository = carRepository;
+        this.clientRepository = clientRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importCars(InputStream input, DataFormat format) throws IOException {
+        return importRows(input, format, Car.class, this::carFromCsv, car -> {
+            carService.validateSamochod(car);
+            if (car.getStatus() == null) {
+                car.setStatus(CarStatus.DOSTEPNY);
+            }
+        }, this::writeCars);
+    }
+
+    public ImportReport importClients(InputStream input, DataFormat format) throws IOException {
+        return importRows(input, format, Client.class, this::clientFromCsv, client -> {
+            clientService.validateClient(client);
+            clientService.normalizeClient(client);
+        }, this::writeClients);
+    }
+
+    // Wiersze czytane są strumieniowo; w pamięci znajduje się co najwyżej jedna partia encji
+    private <T> ImportReport importRows(InputStream input,
+                                        DataFormat format,
+                                        Class<T> type,
+                                        Function<Map<String, String>, T> csvMapper,
+                                        RowValidator<T> validator,
+                                        BatchWriter<T> writer) throws IOException {
+        Report report = new Report();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        String[] header = null;
+        if (format == DataFormat.CSV) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                return report.build();
+            }
+            header = parseCsvLine(headerLine).stream()
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .toArray(String[]::new);
+        }
+
+        List<Row<T>> batch = new ArrayList<>(batchSize);
+        long lineNumber = format == DataFormat.CSV ? 1 : 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                T entity = format == DataFormat.CSV
+                        ? csvMapper.apply(toRecord(header, parseCsvLine(line)))
+                        : objectMapper.readValue(line, type);
+                validator.validate(entity);
+                batch.add(new Row<>(lineNumber, entity));
+            } catch (IOException | RuntimeException e) {
+                report.fail(lineNumber, e.getMessage());
+            }
+
+            if (batch.size() >= batchSize) {
+                flushBatch(batch, writer, report);
+            }
+        }
+        flushBatch(batch, writer, report);
+
+        return report.build();
+    }
+
+    private <T> void flushBatch(List<Row<T>> batch, BatchWriter<T> writer, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        writeRows(new ArrayList<>(batch), writer, report);
+        batch.clear();
+    }
+
+    // Odrzuconą partię dzielimy na połowy, aż błąd zostanie przypisany do pojedynczych wierszy
+    private <T> void writeRows(List<Row<T>> rows, BatchWriter<T> writer, Report report) {
+        // Błędy zgłoszone przez writer trafiają do raportu dopiero po zatwierdzeniu transakcji
+        Report attempt = new Report();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                attempt.imported(writer.write(rows, attempt).size());
+                entityManager.flush();
+                entityManager.clear();
+            });
+            report.merge(attempt);
+        } catch (RuntimeException e) {
+            if (rows.size() == 1) {
+                report.fail(rows.get(0).line(), e.getMessage());
+                return;
+            }
+            int middle = rows.size() / 2;
+            writeRows(rows.subList(0, middle), writer, report);
+            writeRows(rows.subList(middle, rows.size()), writer, report);
+        }
+    }
+
+    private List<Row<Car>> writeCars(List<Row<Car>> batch, Report report) {
+        List<Car> cars = batch.stream().map(Row::entity).toList();
+        // Identyfikator z pliku jest ignorowany, a po wycofanej partii encja ma już nadany własny
+        cars.forEach(car -> {
+            car.setId(null);
+            car.setVersion(null);
+        });
+        carRepository.saveAll(cars);
+        cars.forEach(car -> eventPublisher.publishEvent(CarChangedEvent.changed(car, null)));
+        return batch;
+    }
+
+    private List<Row<Client>> writeClients(List<Row<Client>> batch, Report report) {
+        Set<String> emails = new HashSet<>();
+        batch.forEach(row -> emails.add(row.entity().getEmail()));
+        Set<String> taken = new HashSet<>(clientRepository.findExistingEmails(emails));
+
+        List<Row<Client>> accepted = new ArrayList<>(batch.size());
+        for (Row<Client> row : batch) {
+            if (!taken.add(row.entity().getEmail())) {
+                report.fail(row.line(), String.format("Client with email %s already exists", row.entity().getEmail()));
+                continue;
+            }
+            accepted.add(row);
+        }
+
+        List<Client> clients = accepted.stream().map(Row::entity).toList();
+        clients.forEach(client -> {
+            client.setId(null);
+            client.setVersion(null);
+        });
+        clientRepository.saveAll(clients);
+        clients.forEach(client -> eventPublisher.publishEvent(ClientChangedEvent.changed(client)));
+        return accepted;
+    }
+
+    private Car carFromCsv(Map<String, String> record) {
+        String status = record.get("status");
+        Car car = new Car(
+                record.get("brand"),
+                record.get("model"),
+                decimal(record.get("dailyprice")),
+                status == null || status.isBlank() ? null : CarStatus.valueOf(status.trim().toUpperCase(Locale.ROOT))
+        );
+        car.setWeeklyPrice(decimal(record.get("weeklyprice")));
+        car.setMonthlyPrice(decimal(record.get("monthlyprice")));
+        return car;
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value == null || value.isBlank() ? null : new BigDecimal(value.trim());
+    }
+
+    private Client clientFromCsv(Map<String, String> record) {
+        return new Client(record.get("firstname"), record.get("lastname"), record.get("email"));
+    }
+
+    private Map<String, String> toRecord(String[] header, List<String> values) {
+        if (values.size() > header.length) {
+            throw new IllegalArgumentException("Row has more columns than the header");
+        }
+
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            record.put(header[i], values.get(i));
+        }
+        return record;
+    }
+
+    // RFC 4180 w obrębie jednej linii: pola w cudzysłowach, "" jako znak cudzysłowu
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    @FunctionalInterface
+    private interface RowValidator<T> {
+        void validate(T entity);
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        List<Row<T>> write(List<Row<T>> batch, Report report);
+    }
+
+    private record Row<T>(long line, T entity) {
+    }
+
+    private static final class Report {
+        private long imported;
+        private long failed;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        void imported(long count) {
+            imported += count;
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+
+        void merge(Report other) {
+            imported += other.imported;
+            failed += other.failed;
+            other.errors.stream()
+                    .limit(Math.max(0, MAX_REPORTED_ERRORS - errors.size()))
+                    .forEach(errors::add);
+        }
+
+        ImportReport build() {
+            return new ImportReport(imported, failed, errors, failed > errors.size());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.OverdueRunReport;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Service
+public class OverdueRentalService {
+
+    private final RentalRepository rentalRepository;
+    private final CollectionVersions collectionVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    private volatile OverdueRunReport lastRun;
+
+    public OverdueRentalService(RentalRepository rentalRepository,
+                                CollectionVersions collectionVersions,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${rentals.overdue.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Overdue chunk size must be positive");
+        }
+        this.rentalRepository = rentalRepository;
+        this.collectionVersions = collectionVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${rentals.overdue.cron:0 */15 * * * *}")
+    public void scheduledRun() {
+        OverdueRunReport report = markOverdueRentals();
+        log.info("Marked {} rentals as overdue in {} ms", report.markedOverdue(), report.duration().toMillis());
+    }
+
+    // Każda porcja w osobnej transakcji - blokady wierszy trzymane są tylko przez czas jednego UPDATE
+    public OverdueRunReport markOverdueRentals() {
+        runLock.lock();
+        try {
+            Instant startedAt = Instant.now();
+            long start = System.nanoTime();
+            LocalDate today = LocalDate.now();
+
+            long marked = 0;
+            int chunks = 0;
+            Chunk chunk = new Chunk(0L, chunkSize, 0);
+            while (chunk.size() == chunkSize) {
+                Long afterId = chunk.lastId();
+                chunk = transactionTemplate.execute(status -> markChunk(today, afterId));
+                if (chunk.size() == 0) {
+                    break;
+                }
+                marked += chunk.updated();
+                chunks++;
+            }
+
+            OverdueRunReport report = new OverdueRunReport(startedAt, Duration.ofNanos(System.nanoTime() - start), marked, chunks);
+            lastRun = report;
+            return report;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    public Optional<OverdueRunReport> getLastRun() {
+        return Optional.ofNullable(lastRun);
+    }
+
+    private Chunk markChunk(LocalDate today, Long afterId) {
+        List<Long> ids = rentalRepository.findOverdueIds(today, afterId, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return new Chunk(afterId, 0, 0);
+        }
+        int updated = rentalRepository.markOverdue(ids, today);
+        if (updated > 0) {
+            collectionVersions.rentalsChanged();
+        }
+        return new Chunk(ids.get(ids.size() - 1), ids.size(), updated);
+    }
+
+    private record Chunk(Long lastId, int size, int updated) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.PriceQuote;
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wycena w groszach (long): stawki samochodu przeliczane są do groszy raz na wersję encji,
+// a sama wycena to kilka operacji na liczbach całkowitych
+@Component
+public class PricingEngine {
+
+    static final int DAYS_PER_WEEK = 7;
+    static final int DAYS_PER_MONTH = 30;
+
+    private final Map<Long, RateCard> rateCards = new ConcurrentHashMap<>();
+
+    public PriceQuote quote(Car car, LocalDate rentalDate, LocalDate plannedReturnDate) {
+        long days = billableDays(rentalDate, plannedReturnDate);
+        RateCard rates = rateCard(car);
+        return new PriceQuote(car.getId(), rentalDate, plannedReturnDate, days,
+                toMoney(rates.price(days)), toMoney(Math.multiplyExact(rates.daily(), days)));
+    }
+
+    public BigDecimal totalCost(Car car, LocalDate rentalDate, LocalDate plannedReturnDate) {
+        return toMoney(rateCard(car).price(billableDays(rentalDate, plannedReturnDate)));
+    }
+
+    // Liczba dób między datami niezależnie od granic miesięcy; zwrot tego samego dnia to jedna doba
+    static long billableDays(LocalDate rentalDate, LocalDate plannedReturnDate) {
+        return Math.max(1, ChronoUnit.DAYS.between(rentalDate, plannedReturnDate));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        rateCards.remove(event.carId());
+    }
+
+    private RateCard rateCard(Car car) {
+        if (car.getId() == null) {
+            return RateCard.of(car);
+        }
+        RateCard cached = rateCards.get(car.getId());
+        if (cached != null && Objects.equals(cached.version(), car.getVersion())) {
+            return cached;
+        }
+        RateCard rates = RateCard.of(car);
+        rateCards.put(car.getId(), rates);
+        return rates;
+    }
+
+    static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal toMoney(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    // Stawki efektywne: tydzień nigdy nie kosztuje więcej niż 7 dni, miesiąc - niż 30 dni w tygodniach.
+    // Niepełny tydzień/miesiąc kosztuje najwyżej tyle, co pełny
+    record RateCard(Long version, long daily, long weekly, long monthly) {
+
+        static RateCard of(Car car) {
+            long daily = toMinorUnits(car.getDailyPrice());
+            long weekly = Math.multiplyExact(daily, DAYS_PER_WEEK);
+            if (car.getWeeklyPrice() != null) {
+                weekly = Math.min(weekly, toMinorUnits(car.getWeeklyPrice()));
+            }
+            long monthly = inWeeks(daily, weekly, DAYS_PER_MONTH);
+            if (car.getMonthlyPrice() != null) {
+                monthly = Math.min(monthly, toMinorUnits(car.getMonthlyPrice()));
+            }
+            return new RateCard(car.getVersion(), daily, weekly, monthly);
+        }
+
+        long price(long days) {
+            long fullMonths = Math.multiplyExact(days / DAYS_PER_MONTH, monthly);
+            return Math.addExact(fullMonths, Math.min(inWeeks(daily, weekly, days % DAYS_PER_MONTH), monthly));
+        }
+
+        private static long inWeeks(long daily, long weekly, long days) {
+            long fullWeeks = Math.multiplyExact(days / DAYS_PER_WEEK, weekly);
+            return Math.addExact(fullWeeks, Math.min(Math.multiplyExact(days % DAYS_PER_WEEK, daily), weekly));
+        }
+    }
+}
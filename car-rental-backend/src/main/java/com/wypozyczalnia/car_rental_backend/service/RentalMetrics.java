@@ -0,0 +1,110 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
+import com.wypozyczalnia.car_rental_backend.model.exception.CarNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.ClientNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.RentalNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Liczniki odrzuconych operacji wypożyczenia oraz wskaźniki stanu floty.
+// Aspekt obejmuje transakcję, więc liczone są także błędy zgłoszone przy commicie
+// (HIGHEST_PRECEDENCE jest zarezerwowane dla ExposeInvocationInterceptor)
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RentalMetrics {
+
+    static final String REJECTED = "rentals.rejected";
+
+    private final MeterRegistry registry;
+    private final RentalRepository rentalRepository;
+    private final long currentRentalsTtlNanos;
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private volatile CurrentRentals currentRentals;
+
+    public RentalMetrics(MeterRegistry registry,
+                         RentalRepository rentalRepository,
+                         AvailableCarsCache availableCarsCache,
+                         @Value("${metrics.rentals.current-ttl:30s}") Duration currentRentalsTtl) {
+        this.registry = registry;
+        this.rentalRepository = rentalRepository;
+        this.currentRentalsTtlNanos = currentRentalsTtl.toNanos();
+
+        for (RentalStatus status : CarAvailabilityIndex.BOOKED_STATUSES) {
+            Gauge.builder("rentals.current", this, metrics -> metrics.currentRentals().getOrDefault(status, 0L))
+                    .description("Rentals that are still in progress")
+                    .tag("status", status.name())
+                    .register(registry);
+        }
+        Gauge.builder("cars.available", availableCarsCache, cache -> cache.getAvailableCars().size())
+                .description("Cars with status DOSTEPNY")
+                .register(registry);
+    }
+
+    @AfterThrowing(pointcut = "execution(public * com.wypozyczalnia.car_rental_backend.service.RentalService.rentCar*(..))"
+            + " || execution(public * com.wypozyczalnia.car_rental_backend.service.RentalService.returnCar(..))",
+            throwing = "exception")
+    public void onRejected(JoinPoint joinPoint, Throwable exception) {
+        String operation = joinPoint.getSignature().getName();
+        String reason = reasonOf(exception);
+        rejections.computeIfAbsent(operation + ':' + reason, key -> Counter.builder(REJECTED)
+                        .description("Rental operations rejected, by reason")
+                        .tag("operation", operation)
+                        .tag("reason", reason)
+                        .register(registry))
+                .increment();
+    }
+
+    // Wskaźnik czytany przy każdym scrapie - jedno zapytanie GROUP BY dla wszystkich statusów najwyżej
+    // raz na metrics.rentals.current-ttl, zamiast zapytania per status zajmującego połączenie z puli
+    private Map<RentalStatus, Long> currentRentals() {
+        CurrentRentals cached = currentRentals;
+        long now = System.nanoTime();
+        if (cached == null || now - cached.loadedAt() >= currentRentalsTtlNanos) {
+            Map<RentalStatus, Long> counts = new EnumMap<>(RentalStatus.class);
+            rentalRepository.countByStatusIn(CarAvailabilityIndex.BOOKED_STATUSES)
+                    .forEach(count -> counts.put(count.status(), count.rentals()));
+            cached = new CurrentRentals(now, counts);
+            currentRentals = cached;
+        }
+        return cached.counts();
+    }
+
+    static String reasonOf(Throwable exception) {
+        if (exception instanceof CarNotFoundException) return "car_not_found";
+        if (exception instanceof ClientNotFoundException) return "client_not_found";
+        if (exception instanceof RentalNotFoundException) return "rental_not_found";
+        if (exception instanceof VersionConflictException
+                || exception instanceof ObjectOptimisticLockingFailureException) return "version_conflict";
+        if (exception instanceof IllegalArgumentException) return "invalid_request";
+        if (exception instanceof IllegalStateException) {
+            return switch (String.valueOf(exception.getMessage())) {
+                case "Car already rented" -> "car_already_rented";
+                case "Car is not available for rental" -> "car_not_available";
+                case "Rental is not active" -> "rental_not_active";
+                default -> "conflict";
+            };
+        }
+        return "error";
+    }
+
+    private record CurrentRentals(long loadedAt, Map<RentalStatus, Long> counts) {
+    }
+}
@@ -0,0 +1,310 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.BrandCount;
+import com.wypozyczalnia.car_rental_backend.model.dto.BrandUtilization;
+import com.wypozyczalnia.car_rental_backend.model.dto.CarMonthlyRevenue;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalFact;
+import com.wypozyczalnia.car_rental_backend.model.dto.RollupRebuildReport;
+import com.wypozyczalnia.car_rental_backend.model.entity.BrandMonthKey;
+import com.wypozyczalnia.car_rental_backend.model.entity.BrandMonthlyStats;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarMonthKey;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarMonthlyStats;
+import com.wypozyczalnia.car_rental_backend.model.entity.Rental;
+import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
+import com.wypozyczalnia.car_rental_backend.model.exception.RollupRebuildInProgressException;
+import com.wypozyczalnia.car_rental_backend.repository.BrandMonthlyStatsRepository;
+import com.wypozyczalnia.car_rental_backend.repository.CarMonthlyStatsRepository;
+import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Agregaty miesięczne wypożyczeń: przychód per samochód i wykorzystanie per marka.
+// Aktualizowane przyrostowo w transakcji wypożyczenia/zwrotu, więc raporty czytają
+// tylko wiersze agregatów zamiast całej historii wypożyczeń
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class RentalRollupService {
+
+    private static final Comparator<CarMonthKey> CAR_KEY_ORDER =
+            Comparator.comparing(CarMonthKey::getCarId).thenComparing(CarMonthKey::getMonthStart);
+    private static final Comparator<BrandMonthKey> BRAND_KEY_ORDER =
+            Comparator.comparing(BrandMonthKey::getBrand).thenComparing(BrandMonthKey::getMonthStart);
+
+    private final CarMonthlyStatsRepository carStatsRepository;
+    private final BrandMonthlyStatsRepository brandStatsRepository;
+    private final RentalRepository rentalRepository;
+    private final CarRepository carRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int rebuildParallelism;
+    private final boolean lockTables;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public RentalRollupService(CarMonthlyStatsRepository carStatsRepository,
+                               BrandMonthlyStatsRepository brandStatsRepository,
+                               RentalRepository rentalRepository,
+                               CarRepository carRepository,
+                               PlatformTransactionManager transactionManager,
+                               EntityManagerFactory entityManagerFactory,
+                               @Value("${rollups.rebuild.parallelism:4}") int rebuildParallelism) {
+        if (rebuildParallelism < 1) {
+            throw new IllegalArgumentException("Rollup rebuild parallelism must be positive");
+        }
+        this.carStatsRepository = carStatsRepository;
+        this.brandStatsRepository = brandStatsRepository;
+        this.rentalRepository = rentalRepository;
+        this.carRepository = carRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildParallelism = rebuildParallelism;
+        // LOCK TABLE tylko na PostgreSQL - H2 w testach działa w jednym procesie
+        this.lockTables = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    @Transactional
+    public void recordRentals(Collection<Rental> rentals) {
+        Changes changes = new Changes();
+        for (Rental rental : rentals) {
+            changes.add(rental.getCar().getId(), rental.getCarBrand(), contribution(rental), 1);
+        }
+        apply(changes);
+    }
+
+    // Zwrot zmienia datę zakończenia, a anulowanie także status i koszt - wycofanie wkładu
+    // z chwili wypożyczenia i dodanie wkładu po zmianie
+    @Transactional
+    public void recordReturn(Rental rental, LocalDate plannedReturnDate, BigDecimal plannedCost) {
+        Long carId = rental.getCar().getId();
+        String brand = rental.getCarBrand();
+
+        Changes changes = new Changes();
+        changes.add(carId, brand, contribution(RentalStatus.AKTYWNE, rental.getRentalDate(), plannedReturnDate, plannedCost), -1);
+        changes.add(carId, brand, contribution(rental), 1);
+        apply(changes);
+    }
+
+    public List<CarMonthlyRevenue> findRevenue(YearMonth from, YearMonth to, Long carId) {
+        validateRange(from, to);
+
+        List<CarMonthlyStats> rows = carId == null
+                ? carStatsRepository.findByMonthRange(from.atDay(1), to.atDay(1))
+                : carStatsRepository.findByCarAndMonthRange(carId, from.atDay(1), to.atDay(1));
+        return rows.stream()
+                .map(row -> new CarMonthlyRevenue(row.getId().getCarId(), YearMonth.from(row.getId().getMonthStart()),
+                        row.getRentals(), row.getCancellations(), row.getRevenue(), row.getRentedDays()))
+                .toList();
+    }
+
+    // Wielkość floty to bieżąca liczba samochodów marki - historia floty nie jest przechowywana
+    public List<BrandUtilization> findUtilization(YearMonth from, YearMonth to) {
+        validateRange(from, to);
+
+        Map<String, Long> fleet = carRepository.countByBrand().stream()
+                .collect(Collectors.toMap(BrandCount::brand, BrandCount::cars));
+        return brandStatsRepository.findByMonthRange(from.atDay(1), to.atDay(1)).stream()
+                .map(row -> {
+                    YearMonth month = YearMonth.from(row.getId().getMonthStart());
+                    long fleetSize = fleet.getOrDefault(row.getId().getBrand(), 0L);
+                    double utilization = fleetSize == 0 ? 0 : (double) row.getRentedDays() / (fleetSize * month.lengthOfMonth());
+                    return new BrandUtilization(row.getId().getBrand(), month, row.getRentals(), row.getCancellations(),
+                            row.getRevenue(), row.getRentedDays(), fleetSize, utilization);
+                })
+                .toList();
+    }
+
+    // Historia dzielona na rozłączne części po identyfikatorze samochodu, każda czytana strumieniowo
+    // w osobnej transakcji; wynik zastępuje agregaty w transakcji zapisu.
+    // Transakcja zapisu najpierw blokuje tabele agregatów: wypożyczenia zatwierdzone wcześniej są już
+    // widoczne dla odczytów, a późniejsze czekają z upsertem i dopisują się do przebudowanych wierszy
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RollupRebuildReport rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new RollupRebuildInProgressException();
+        }
+        try {
+            return writeTransaction.execute(status -> {
+                if (lockTables) {
+                    carStatsRepository.lockForRebuild();
+                }
+                return rebuildLocked();
+            });
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private RollupRebuildReport rebuildLocked() {
+        long start = System.nanoTime();
+        AtomicLong rentals = new AtomicLong();
+
+        Changes total = new Changes();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Changes>> partitions = new ArrayList<>(rebuildParallelism);
+            for (int i = 0; i < rebuildParallelism; i++) {
+                int partition = i;
+                partitions.add(executor.submit(() -> readOnlyTransaction.execute(status -> {
+                    Changes changes = new Changes();
+                    try (Stream<RentalFact> facts = rentalRepository.streamFacts(rebuildParallelism, partition)) {
+                        facts.forEach(fact -> {
+                            changes.add(fact.carId(), fact.brand(), contribution(fact.status(), fact.rentalDate(),
+                                    fact.returnDate(), fact.totalCost()), 1);
+                            rentals.incrementAndGet();
+                        });
+                    }
+                    return changes;
+                })));
+            }
+            for (Future<Changes> partition : partitions) {
+                total.addAll(partition.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollup rebuild failed", e.getCause());
+        }
+
+        carStatsRepository.deleteAllInBatch();
+        brandStatsRepository.deleteAllInBatch();
+        carStatsRepository.saveAll(total.cars.entrySet().stream()
+                .map(entry -> entry.getValue().toCarStats(entry.getKey())).toList());
+        brandStatsRepository.saveAll(total.brands.entrySet().stream()
+                .map(entry -> entry.getValue().toBrandStats(entry.getKey())).toList());
+
+        RollupRebuildReport report = new RollupRebuildReport(Duration.ofNanos(System.nanoTime() - start),
+                rentals.get(), rebuildParallelism, total.cars.size(), total.brands.size());
+        log.info("Rebuilt rollups from {} rentals in {} ms", report.rentals(), report.duration().toMillis());
+        return report;
+    }
+
+    static NavigableMap<YearMonth, Delta> contribution(Rental rental) {
+        return contribution(rental.getStatus(), rental.getRentalDate(), rental.getReturnDate(), rental.getTotalCost());
+    }
+
+    // Anulowanie liczy się w miesiącu rozpoczęcia bez przychodu i bez dni zajętości; pozostałe statusy
+    // to wypożyczenie z przychodem w miesiącu rozpoczęcia i dobami [rentalDate, returnDate) w miesiącach,
+    // w których przypadają (co najmniej jedna doba)
+    static NavigableMap<YearMonth, Delta> contribution(RentalStatus status, LocalDate rentalDate,
+                                                       LocalDate returnDate, BigDecimal totalCost) {
+        NavigableMap<YearMonth, Delta> deltas = new TreeMap<>();
+        YearMonth startMonth = YearMonth.from(rentalDate);
+        if (status == RentalStatus.ANULOWANE) {
+            deltas.put(startMonth, new Delta(0, 1, BigDecimal.ZERO, 0));
+            return deltas;
+        }
+
+        deltas.put(startMonth, new Delta(1, 0, totalCost, 0));
+        LocalDate end = returnDate == null || !returnDate.isAfter(rentalDate) ? rentalDate.plusDays(1) : returnDate;
+        for (LocalDate day = rentalDate; day.isBefore(end); ) {
+            YearMonth month = YearMonth.from(day);
+            LocalDate next = month.plusMonths(1).atDay(1);
+            LocalDate until = next.isBefore(end) ? next : end;
+            deltas.merge(month, new Delta(0, 0, BigDecimal.ZERO, day.until(until).getDays()), Delta::plus);
+            day = until;
+        }
+        return deltas;
+    }
+
+    // Kolejność kluczy stała, więc równoległe transakcje blokują wiersze agregatów w tej samej kolejności.
+    // Brakujący wiersz miesiąca wstawiany jest tym samym upsertem w bieżącej transakcji
+    private void apply(Changes changes) {
+        changes.cars.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                carStatsRepository.upsert(key.getCarId(), key.getMonthStart(),
+                        delta.rentals(), delta.cancellations(), delta.revenue(), delta.rentedDays());
+            }
+        });
+        changes.brands.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                brandStatsRepository.upsert(key.getBrand(), key.getMonthStart(),
+                        delta.rentals(), delta.cancellations(), delta.revenue(), delta.rentedDays());
+            }
+        });
+    }
+
+    private static void validateRange(YearMonth from, YearMonth to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Month range is required");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End month cannot be before start month");
+        }
+    }
+
+    record Delta(long rentals, long cancellations, BigDecimal revenue, long rentedDays) {
+
+        Delta plus(Delta other) {
+            return new Delta(rentals + other.rentals, cancellations + other.cancellations,
+                    revenue.add(other.revenue), rentedDays + other.rentedDays);
+        }
+
+        Delta times(int sign) {
+            return sign == 1 ? this : new Delta(sign * rentals, sign * cancellations,
+                    revenue.multiply(BigDecimal.valueOf(sign)), sign * rentedDays);
+        }
+
+        boolean isZero() {
+            return rentals == 0 && cancellations == 0 && revenue.signum() == 0 && rentedDays == 0;
+        }
+
+        CarMonthlyStats toCarStats(CarMonthKey key) {
+            return new CarMonthlyStats(key, rentals, cancellations, revenue, rentedDays);
+        }
+
+        BrandMonthlyStats toBrandStats(BrandMonthKey key) {
+            return new BrandMonthlyStats(key, rentals, cancellations, revenue, rentedDays);
+        }
+    }
+
+    // Zmiany zsumowane per samochód/marka i miesiąc
+    private static final class Changes {
+
+        private final NavigableMap<CarMonthKey, Delta> cars = new TreeMap<>(CAR_KEY_ORDER);
+        private final NavigableMap<BrandMonthKey, Delta> brands = new TreeMap<>(BRAND_KEY_ORDER);
+
+        void add(Long carId, String brand, Map<YearMonth, Delta> deltas, int sign) {
+            deltas.forEach((month, delta) -> {
+                Delta signed = delta.times(sign);
+                cars.merge(new CarMonthKey(carId, month.atDay(1)), signed, Delta::plus);
+                brands.merge(new BrandMonthKey(brand, month.atDay(1)), signed, Delta::plus);
+            });
+        }
+
+        void addAll(Changes other) {
+            other.cars.forEach((key, delta) -> cars.merge(key, delta, Delta::plus));
+            other.brands.forEach((key, delta) -> brands.merge(key, delta, Delta::plus));
+        }
+    }
+}
@@ -1,87 +1,208 @@
 package com.wypozyczalnia.car_rental_backend.service;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.ClientRentalView;
+import com.wypozyczalnia.car_rental_backend.model.dto.CursorPage;
+import com.wypozyczalnia.car_rental_backend.model.dto.PriceQuote;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalHistoryPage;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalRequest;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalView;
 import com.wypozyczalnia.car_rental_backend.model.entity.*;
 import com.wypozyczalnia.car_rental_backend.model.exception.RentalNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
 import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Timed(value = "service.rentals", histogram = true)
 public class RentalService {
 
     private final RentalRepository rentalRepository;
     private final CarService carService;
     private final ClientService clientService;
+    private final CarAvailabilityIndex availabilityIndex;
+    private final PricingEngine pricingEngine;
+    private final RentalRollupService rollupService;
+    private final CollectionVersions collectionVersions;
 
     public List<Rental> findAll() {
         return rentalRepository.findAll();
     }
 
+    public CursorPage<RentalView> findPage(Long after, int limit) {
+        CursorPage.validateLimit(limit);
+
+        List<RentalView> rows = rentalRepository.findViewsAfter(after == null ? 0L : after, Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, RentalView::id);
+    }
+
+    // Pusta strona może oznaczać nieistniejącego klienta - dopiero wtedy sprawdzany jest klient
+    public RentalHistoryPage findClientHistory(Long clientId, String after, int limit) {
+        CursorPage.validateLimit(limit);
+
+        List<ClientRentalView> rows;
+        if (after == null || after.isBlank()) {
+            rows = rentalRepository.findClientHistory(clientId, Limit.of(limit + 1));
+        } else {
+            RentalHistoryPage.Cursor cursor = RentalHistoryPage.Cursor.parse(after);
+            rows = rentalRepository.findClientHistoryBefore(clientId, cursor.rentalDate(), cursor.id(), Limit.of(limit + 1));
+        }
+        if (rows.isEmpty()) {
+            clientService.findById(clientId);
+        }
+        return RentalHistoryPage.of(rows, limit);
+    }
+
     public Rental findById(Long id) {
         return rentalRepository.findById(id)
                 .orElseThrow(() -> new RentalNotFoundException(id));
     }
 
+    public RentalView findViewById(Long id) {
+        return rentalRepository.findViewById(id)
+                .orElseThrow(() -> new RentalNotFoundException(id));
+    }
+
     @Transactional
     public Rental rentCar(Long klientId, Long samochodId, LocalDate dataWypozyczenia, LocalDate planowanaDataZwrotu) {
         validateRentalData(klientId, samochodId, dataWypozyczenia, planowanaDataZwrotu);
 
-        Client client = clientService.findById(klientId);
-
-        Car car = carService.findById(samochodId);
-
-        if (rentalRepository.existsByCarIdAndStatus(samochodId, RentalStatus.AKTYWNE)) {
+        if (!availabilityIndex.isAvailable(samochodId, dataWypozyczenia, planowanaDataZwrotu)) {
             throw new IllegalStateException("Car already rented");
         }
+        lockAndCheckOverlaps(List.of(new RentalRequest(klientId, samochodId, dataWypozyczenia, planowanaDataZwrotu)));
 
-        int liczbaDni = Period.between(dataWypozyczenia, planowanaDataZwrotu).getDays();
-        if (liczbaDni == 0) { // W przypadku wypożyczenia i zwrotu tego samego dnia, naliczamy 1 dzień
-            liczbaDni = 1;
-        }
+        // Wypożyczenie od dziś przejmuje zablokowany samochód; rezerwacja na przyszły termin
+        // nie zmienia bieżącego statusu samochodu
+        Car car = dataWypozyczenia.isAfter(LocalDate.now())
+                ? carService.findById(samochodId)
+                : carService.markAsRented(samochodId);
+
+        Client client = clientService.findById(klientId);
 
-        BigDecimal totalCost = car.getDailyPrice()
-                .multiply(BigDecimal.valueOf(liczbaDni));
+        BigDecimal totalCost = pricingEngine.totalCost(car, dataWypozyczenia, planowanaDataZwrotu);
 
         Rental rental = new Rental(
                 client, car, dataWypozyczenia, totalCost, planowanaDataZwrotu
         );
 
         Rental savedRental = rentalRepository.save(rental);
-
-        carService.markAsRented(samochodId);
+        availabilityIndex.reserve(savedRental.getId(), samochodId, dataWypozyczenia, planowanaDataZwrotu);
+        rollupService.recordRentals(List.of(savedRental));
+        collectionVersions.rentalsChanged();
 
         return savedRental;
     }
 
-    public List<Rental> findByStatus(RentalStatus status) {
-        return rentalRepository.findByStatusOrderByRentalDateDesc(status);
+    @Transactional
+    public List<Rental> rentCars(List<RentalRequest> requests) {
+        for (RentalRequest request : requests) {
+            validateRentalData(request.getClientId(), request.getCarId(), request.getRentalDate(), request.getPlannedReturnDate());
+
+            if (!availabilityIndex.isAvailable(request.getCarId(), request.getRentalDate(), request.getPlannedReturnDate())) {
+                throw new IllegalStateException("Car already rented");
+            }
+        }
+        validateNoOverlapsInBatch(requests);
+        lockAndCheckOverlaps(requests);
+
+        LocalDate today = LocalDate.now();
+        Set<Long> immediateCarIds = requests.stream()
+                .filter(request -> !request.getRentalDate().isAfter(today))
+                .map(RentalRequest::getCarId)
+                .collect(Collectors.toSet());
+        carService.markAllAsRented(immediateCarIds);
+
+        Map<Long, Car> cars = carService.findAllById(
+                requests.stream().map(RentalRequest::getCarId).collect(Collectors.toSet()));
+        Map<Long, Client> clients = clientService.findAllById(
+                requests.stream().map(RentalRequest::getClientId).collect(Collectors.toSet()));
+
+        List<Rental> rentals = new ArrayList<>(requests.size());
+        for (RentalRequest request : requests) {
+            Car car = cars.get(request.getCarId());
+            rentals.add(new Rental(
+                    clients.get(request.getClientId()), car, request.getRentalDate(),
+                    pricingEngine.totalCost(car, request.getRentalDate(), request.getPlannedReturnDate()),
+                    request.getPlannedReturnDate()
+            ));
+        }
+
+        // Identyfikatory z sekwencji pozwalają Hibernate wysłać INSERT-y jednym batchem JDBC
+        List<Rental> saved = rentalRepository.saveAll(rentals);
+        for (Rental rental : saved) {
+            availabilityIndex.reserve(rental.getId(), rental.getCar().getId(), rental.getRentalDate(), rental.getReturnDate());
+        }
+        rollupService.recordRentals(saved);
+        collectionVersions.rentalsChanged();
+
+        return saved;
     }
 
-    public List<Rental> findActiveRentals() {
-        return findByStatus(RentalStatus.AKTYWNE);
+    // Wycena bez tworzenia wypożyczenia - samochód czytany z cache drugiego poziomu
+    public PriceQuote quote(Long carId, LocalDate rentalDate, LocalDate plannedReturnDate) {
+        if (carId == null) {
+            throw new IllegalArgumentException("Car ID is required");
+        }
+        validateRentalPeriod(rentalDate, plannedReturnDate);
+
+        return pricingEngine.quote(carService.findById(carId), rentalDate, plannedReturnDate);
+    }
+
+    public List<RentalView> findByStatus(RentalStatus status) {
+        return rentalRepository.findViewsByStatus(status);
+    }
+
+    // Przeterminowane wypożyczenia nadal trwają - samochód nie wrócił do wypożyczalni
+    public List<RentalView> findActiveRentals() {
+        return rentalRepository.findViewsByStatusIn(CarAvailabilityIndex.BOOKED_STATUSES);
+    }
+
+    public List<RentalView> findOverdueRentals() {
+        return findByStatus(RentalStatus.PRZETERMINOWANE);
     }
 
     @Transactional
     public Rental returnCar(Long wypozyczenieId) {
+        return returnCar(wypozyczenieId, null);
+    }
+
+    @Transactional
+    public Rental returnCar(Long wypozyczenieId, Long expectedVersion) {
         LocalDate dataZwrotu = LocalDate.now();
 
         Rental rental = rentalRepository.findById(wypozyczenieId)
                 .orElseThrow(() -> new RentalNotFoundException(wypozyczenieId));
 
-        if (!RentalStatus.AKTYWNE.equals(rental.getStatus())) {
+        if (expectedVersion != null && !expectedVersion.equals(rental.getVersion())) {
+            throw new VersionConflictException("Rental", wypozyczenieId, expectedVersion, rental.getVersion());
+        }
+
+        if (!CarAvailabilityIndex.BOOKED_STATUSES.contains(rental.getStatus())) {
             throw new IllegalStateException("Rental is not active");
         }
 
-        if (dataZwrotu.isBefore(rental.getRentalDate())) {
+        LocalDate plannedReturnDate = rental.getReturnDate();
+        BigDecimal plannedCost = rental.getTotalCost();
+
+        boolean cancelled = dataZwrotu.isBefore(rental.getRentalDate());
+        if (cancelled) {
             rental.setStatus(RentalStatus.ANULOWANE);
             rental.setReturnDate(dataZwrotu);
             rental.setTotalCost(BigDecimal.ZERO);
@@ -91,11 +212,50 @@ public class RentalService {
         }
 
         Rental updated = rentalRepository.save(rental);
-        carService.markAsAvailable(rental.getCar().getId());
+        availabilityIndex.release(wypozyczenieId);
+        rollupService.recordReturn(updated, plannedReturnDate, plannedCost);
+        collectionVersions.rentalsChanged();
+
+        // Anulowana rezerwacja nie zajmowała samochodu - może on być teraz wypożyczony komuś innemu.
+        // Samochód zostaje wypożyczony, jeśli dziś zajmuje go inna niezwrócona rezerwacja
+        Long carId = rental.getCar().getId();
+        if (!cancelled && !rentalRepository.existsStartedBooking(carId, CarAvailabilityIndex.BOOKED_STATUSES, dataZwrotu)) {
+            carService.markAsAvailable(carId);
+        }
 
         return updated;
     }
 
+    // Indeks w pamięci jest tylko szybkim sprawdzeniem wstępnym - nie widzi rezerwacji innych instancji ani
+    // zapisanych w trakcie przeładowania. Rozstrzyga ponowne sprawdzenie w tabeli rentals pod blokadą
+    // wierszy samochodów, którą kolejna rezerwacja tego samego samochodu czeka do zatwierdzenia tej transakcji
+    private void lockAndCheckOverlaps(List<RentalRequest> requests) {
+        carService.lockForBooking(requests.stream().map(RentalRequest::getCarId).collect(Collectors.toCollection(TreeSet::new)));
+
+        LocalDate today = LocalDate.now();
+        for (RentalRequest request : requests) {
+            if (rentalRepository.existsOverlappingBooking(request.getCarId(), CarAvailabilityIndex.BOOKED_STATUSES,
+                    request.getRentalDate(), request.getPlannedReturnDate(), today)) {
+                throw new IllegalStateException("Car already rented");
+            }
+        }
+    }
+
+    private void validateNoOverlapsInBatch(List<RentalRequest> requests) {
+        List<RentalRequest> sorted = requests.stream()
+                .sorted(Comparator.comparing(RentalRequest::getCarId).thenComparing(RentalRequest::getRentalDate))
+                .toList();
+
+        for (int i = 1; i < sorted.size(); i++) {
+            RentalRequest previous = sorted.get(i - 1);
+            RentalRequest current = sorted.get(i);
+            if (previous.getCarId().equals(current.getCarId())
+                    && current.getRentalDate().isBefore(previous.getPlannedReturnDate())) {
+                throw new IllegalArgumentException("Batch contains overlapping rentals for car " + current.getCarId());
+            }
+        }
+    }
+
     private void validateRentalData(Long clientId, Long carId, LocalDate rentalDate, LocalDate plannedReturnDate) {
         if (clientId == null) {
             throw new IllegalArgumentException("Client ID is required");
@@ -105,6 +265,10 @@ public class RentalService {
             throw new IllegalArgumentException("Car ID is required");
         }
 
+        validateRentalPeriod(rentalDate, plannedReturnDate);
+    }
+
+    private void validateRentalPeriod(LocalDate rentalDate, LocalDate plannedReturnDate) {
         if (rentalDate == null) {
             throw new IllegalArgumentException("Rental date is required");
         }
@@ -0,0 +1,39 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Rezerwacja na przyszły termin nie zmienia statusu samochodu przy tworzeniu - samochód przejmowany jest
+// w dniu rozpoczęcia, aby lista dostępnych, metryki i strumień statusów pokazywały go jako wypożyczony
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RentalStartService {
+
+    private final RentalRepository rentalRepository;
+    private final CarService carService;
+
+    // Domyślnie co godzinę - przestój w chwili zmiany doby opóźnia przejęcie najwyżej o godzinę
+    @Scheduled(cron = "${rentals.start.cron:0 0 * * * *}")
+    public void scheduledRun() {
+        int claimed = claimStartedRentals();
+        if (claimed > 0) {
+            log.info("Marked {} cars as rented for rentals starting today", claimed);
+        }
+    }
+
+    public int claimStartedRentals() {
+        List<Long> carIds = rentalRepository.findAvailableCarIdsWithStartedBookings(
+                CarAvailabilityIndex.BOOKED_STATUSES, LocalDate.now());
+        if (carIds.isEmpty()) {
+            return 0;
+        }
+        return carService.markStartedAsRented(carIds);
+    }
+}
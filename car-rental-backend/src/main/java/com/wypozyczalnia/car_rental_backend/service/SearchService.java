@@ -0,0 +1,144 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import com.wypozyczalnia.car_rental_backend.model.event.ClientChangedEvent;
+import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
+import com.wypozyczalnia.car_rental_backend.repository.ClientRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Wyszukiwanie "w trakcie pisania" po fragmentach marki/modelu i imienia/nazwiska/emaila.
+// Indeksy budowane z bazy przy pierwszym zapytaniu, potem aktualizowane zdarzeniami po zatwierdzeniu transakcji
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private final CarRepository carRepository;
+    private final ClientRepository clientRepository;
+
+    private final Index<Car> cars = new Index<>(Comparator.comparing(Car::getBrand)
+            .thenComparing(Car::getModel)
+            .thenComparing(Car::getId));
+    private final Index<Client> clients = new Index<>(Comparator.comparing(Client::getLastName)
+            .thenComparing(Client::getFirstName)
+            .thenComparing(Client::getId));
+
+    public List<Car> searchCars(String query, int limit) {
+        validate(query, limit);
+        return cars.search(query, limit, this::loadCars);
+    }
+
+    public List<Client> searchClients(String query, int limit) {
+        validate(query, limit);
+        return clients.search(query, limit, this::loadClients);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (event.isDeleted()) {
+            cars.remove(event.carId());
+        } else {
+            Car car = event.car();
+            cars.put(car.getId(), car, car.getBrand(), car.getModel());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientChanged(ClientChangedEvent event) {
+        if (event.isDeleted()) {
+            clients.remove(event.clientId());
+        } else {
+            Client client = event.client();
+            clients.put(client.getId(), client, client.getFirstName(), client.getLastName(), client.getEmail());
+        }
+    }
+
+    private void loadCars(TrigramIndex<Car> index) {
+        for (Car car : carRepository.findAll()) {
+            index.put(car.getId(), car.copy(), car.getBrand(), car.getModel());
+        }
+    }
+
+    private void loadClients(TrigramIndex<Client> index) {
+        for (Client client : clientRepository.findAll()) {
+            index.put(client.getId(), client.copy(), client.getFirstName(), client.getLastName(), client.getEmail());
+        }
+    }
+
+    private static void validate(String query, int limit) {
+        if (query == null || query.strip().length() < TrigramIndex.MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Query must have at least " + TrigramIndex.MIN_QUERY_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    // Odczyty współbieżne, zapisy i pierwsze ładowanie na wyłączność
+    private static final class Index<T> {
+
+        private final TrigramIndex<T> index;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile boolean loaded;
+
+        Index(Comparator<T> order) {
+            this.index = new TrigramIndex<>(order);
+        }
+
+        List<T> search(String query, int limit, Consumer<TrigramIndex<T>> loader) {
+            if (!loaded) {
+                load(loader);
+            }
+            lock.readLock().lock();
+            try {
+                return index.search(query, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(Long id, T value, String... fields) {
+            write(() -> index.put(id, value, fields));
+        }
+
+        void remove(Long id) {
+            write(() -> index.remove(id));
+        }
+
+        // Przed pierwszym zapytaniem zmiany są pomijane - i tak trafią do indeksu z bazy
+        private void write(Runnable change) {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    change.run();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void load(Consumer<TrigramIndex<T>> loader) {
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    index.clear();
+                    loader.accept(index);
+                    loaded = true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Indeks trigramów słów (z dopełnieniem spacją na granicach) do wyszukiwania fragmentów tekstu.
+// Fragment >= 3 znaków trafia w dowolne miejsce słowa, krótszy - w początek słowa.
+// Klasa nie jest bezpieczna wątkowo - synchronizację zapewnia właściciel indeksu
+final class TrigramIndex<T> {
+
+    static final int MIN_QUERY_LENGTH = 2;
+
+    // Dokumenty numerowane rosnąco przy dodaniu, więc listy trafień trigramów są posortowane bez sortowania
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final List<Document<T>> documents = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Comparator<T> order;
+
+    TrigramIndex(Comparator<T> order) {
+        this.order = order;
+    }
+
+    void put(Long id, T value, String... fields) {
+        remove(id);
+        if (documents.size() > 2 * ordinals.size() + 1024) {
+            compact();
+        }
+
+        StringBuilder text = new StringBuilder(" ");
+        for (String field : fields) {
+            for (String word : words(field)) {
+                text.append(word).append(' ');
+            }
+        }
+        add(new Document<>(id, value, text.toString(), trigrams(text.toString())));
+    }
+
+    void remove(Long id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        for (String trigram : documents.get(ordinal).trigrams()) {
+            Postings ordinalsWithTrigram = postings.get(trigram);
+            ordinalsWithTrigram.remove(ordinal);
+            if (ordinalsWithTrigram.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+        documents.set(ordinal, null);
+    }
+
+    void clear() {
+        postings.clear();
+        documents.clear();
+        ordinals.clear();
+    }
+
+    int size() {
+        return ordinals.size();
+    }
+
+    // Wszystkie fragmenty zapytania muszą wystąpić w dokumencie; trafienia w początek słowa wyżej.
+    // Z trafień zachowywane jest tylko `limit` najlepszych (kopiec), bez sortowania wszystkich dopasowań
+    List<T> search(String query, int limit) {
+        List<String> tokens = words(query);
+        List<Postings> lists = new ArrayList<>();
+        String[] patterns = new String[tokens.size()];
+        String[] wordStartPatterns = new String[tokens.size()];
+        boolean verify = false;
+        for (int i = 0; i < patterns.length; i++) {
+            String token = tokens.get(i);
+            patterns[i] = token.length() < 3 ? " " + token : token;
+            wordStartPatterns[i] = " " + token;
+
+            Set<String> trigrams = trigrams(patterns[i]);
+            // Pojedynczy trigram jest dokładnym dopasowaniem - dłuższe fragmenty trzeba sprawdzić w tekście
+            verify |= trigrams.size() != 1;
+            for (String trigram : trigrams) {
+                Postings list = postings.get(trigram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        Comparator<Match<T>> ranking = Comparator.<Match<T>>comparingInt(Match::wordStarts).reversed()
+                .thenComparing(Match::value, order);
+        PriorityQueue<Match<T>> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+        Postings smallest = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        for (int i = 0; i < smallest.size; i++) {
+            int ordinal = smallest.ordinals[i];
+            if (!containsInAll(lists, cursors, ordinal)) {
+                continue;
+            }
+            Document<T> document = documents.get(ordinal);
+            if (verify && !containsAll(document.text(), patterns)) {
+                continue;
+            }
+            int wordStarts = 0;
+            for (int p = 0; p < patterns.length; p++) {
+                if (patterns[p].charAt(0) == ' ' || document.text().contains(wordStartPatterns[p])) {
+                    wordStarts++;
+                }
+            }
+            if (best.size() < limit) {
+                best.offer(new Match<>(document.value(), wordStarts));
+            } else if (ranksBefore(document.value(), wordStarts, best.peek())) {
+                best.poll();
+                best.offer(new Match<>(document.value(), wordStarts));
+            }
+        }
+
+        List<Match<T>> result = new ArrayList<>(best);
+        result.sort(ranking);
+        return result.stream().map(Match::value).toList();
+    }
+
+    // Porównanie z najsłabszym zachowanym trafieniem bez tworzenia obiektu dla odrzucanych dokumentów
+    private boolean ranksBefore(T value, int wordStarts, Match<T> worst) {
+        if (wordStarts != worst.wordStarts()) {
+            return wordStarts > worst.wordStarts();
+        }
+        return order.compare(value, worst.value()) < 0;
+    }
+
+    // Małe litery bez znaków diakrytycznych, podział na słowa po znakach innych niż litery i cyfry
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replace('ł', 'l');
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private void add(Document<T> document) {
+        int ordinal = documents.size();
+        documents.add(document);
+        ordinals.put(document.id(), ordinal);
+        for (String trigram : document.trigrams()) {
+            postings.computeIfAbsent(trigram, key -> new Postings()).add(ordinal);
+        }
+    }
+
+    // Po wielu aktualizacjach numeracja ma luki - przebudowa z zachowaniem kolejności dokumentów
+    private void compact() {
+        List<Document<T>> live = documents.stream().filter(document -> document != null).toList();
+        clear();
+        live.forEach(this::add);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            String trigram = text.substring(i, i + 3);
+            if (trigram.charAt(1) != ' ') {
+                trigrams.add(trigram);
+            }
+        }
+        return trigrams;
+    }
+
+    // Kolejne numery są rosnące, więc kursory list tylko przesuwają się do przodu
+    private static boolean containsInAll(List<Postings> lists, int[] cursors, int ordinal) {
+        for (int i = 1; i < lists.size(); i++) {
+            Postings list = lists.get(i);
+            int cursor = cursors[i];
+            while (cursor < list.size && list.ordinals[cursor] < ordinal) {
+                cursor++;
+            }
+            cursors[i] = cursor;
+            if (cursor == list.size || list.ordinals[cursor] != ordinal) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsAll(String text, String[] patterns) {
+        for (String pattern : patterns) {
+            if (!text.contains(pattern)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Postings {
+
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        void remove(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index >= 0) {
+                System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+
+    private record Document<T>(Long id, T value, String text, Set<String> trigrams) {
+    }
+
+    private record Match<T>(T value, int wordStarts) {
+    }
+}
@@ -0,0 +1,36 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// Identyfikatory z sekwencji przydzielanych po 50 (batch insert) zamiast kolumn identity.
+// Sekwencja startuje za istniejącymi wierszami - odpowiednik setval(max(id)), ale przez ALTER SEQUENCE RESTART,
+// który działa także w H2 używanym w testach migracji
+public class V3__Id_sequences extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+    private static final List<String> TABLES = List.of("cars", "clients", "rentals");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long maxId;
+                try (ResultSet result = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+                    result.next();
+                    maxId = result.getLong(1);
+                }
+                statement.execute("alter table " + table + " alter column id drop identity");
+                statement.execute("create sequence if not exists " + table + "_seq start with 1 increment by " + ALLOCATION_SIZE);
+                // Optymalizator pooled Hibernate wydaje z wartości sekwencji n identyfikatory (n - 49 .. n),
+                // więc pierwsza wartość musi wypaść o całą pulę za największym istniejącym id
+                statement.execute("alter sequence " + table + "_seq restart with " + (maxId + ALLOCATION_SIZE));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- Schemat wygenerowany wcześniej przez ddl-auto=update. Istniejące bazy są przyjmowane z wersją bazową 1
+-- (spring.flyway.baseline-version), więc ten plik wykonuje się tylko na pustej bazie i nie może się zmieniać
+
+create table cars (
+    id          bigint generated by default as identity,
+    brand       varchar(50)   not null,
+    daily_price numeric(10,2) not null,
+    model       varchar(50)   not null,
+    status      varchar(20)   not null check (status in ('DOSTEPNY', 'WYPOZYCZONY')),
+    primary key (id)
+);
+
+create table clients (
+    id         bigint generated by default as identity,
+    email      varchar(255) not null,
+    first_name varchar(50)  not null,
+    last_name  varchar(50)  not null,
+    primary key (id)
+);
+
+create table rentals (
+    id          bigint generated by default as identity,
+    rental_date date          not null,
+    return_date date          not null,
+    status      varchar(20)   not null check (status in ('AKTYWNE', 'ZAKONCZONE', 'PRZETERMINOWANE', 'ANULOWANE')),
+    total_cost  numeric(10,2) not null,
+    car_id      bigint        not null,
+    client_id   bigint        not null,
+    primary key (id)
+);
+
+alter table clients add constraint UKsrv16ica2c1csub334bxjjb59 unique (email);
+alter table rentals add constraint FKb3vpbdnk78p1epicm7a7urvfh foreign key (car_id) references cars;
+alter table rentals add constraint FKq22d9ksit6rd9l9q26x3dx6jg foreign key (client_id) references clients;
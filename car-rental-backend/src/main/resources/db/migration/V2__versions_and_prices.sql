@@ -0,0 +1,9 @@
+-- Blokada optymistyczna (@Version) i stawki tygodniowe/miesięczne samochodów.
+-- IF NOT EXISTS - baza uruchamiana z ddl-auto=update po tych zmianach mogła już mieć część kolumn
+
+alter table cars add column if not exists version bigint default 0 not null;
+alter table clients add column if not exists version bigint default 0 not null;
+alter table rentals add column if not exists version bigint default 0 not null;
+
+alter table cars add column if not exists weekly_price numeric(10,2);
+alter table cars add column if not exists monthly_price numeric(10,2);
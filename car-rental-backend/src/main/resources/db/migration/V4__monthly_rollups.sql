@@ -0,0 +1,21 @@
+-- Agregaty miesięczne raportów, aktualizowane razem z wypożyczeniem i zwrotem
+
+create table if not exists car_monthly_stats (
+    car_id        bigint        not null,
+    month_start   date          not null,
+    rentals       bigint        not null,
+    cancellations bigint        not null,
+    revenue       numeric(14,2) not null,
+    rented_days   bigint        not null,
+    primary key (car_id, month_start)
+);
+
+create table if not exists brand_monthly_stats (
+    brand         varchar(50)   not null,
+    month_start   date          not null,
+    rentals       bigint        not null,
+    cancellations bigint        not null,
+    revenue       numeric(14,2) not null,
+    rented_days   bigint        not null,
+    primary key (brand, month_start)
+);
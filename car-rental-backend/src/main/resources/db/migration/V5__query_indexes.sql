@@ -0,0 +1,20 @@
+-- Indeksy pod zapytania z repozytoriów
+
+-- existsByCarIdAndStatus, blokada usuwania wypożyczonego samochodu
+create index if not exists idx_rentals_car_status on rentals (car_id, status);
+
+-- findByStatusOrderByRentalDateDesc, findViewsByStatus, lista aktywnych i przeterminowanych
+create index if not exists idx_rentals_status_rental_date on rentals (status, rental_date desc);
+
+-- hasActiveRentals przy usuwaniu klienta
+create index if not exists idx_rentals_client_status on rentals (client_id, status);
+
+-- Historia klienta stronicowana kursorem (rental_date, id) od najnowszych
+create index if not exists idx_rentals_client_history on rentals (client_id, rental_date desc, id desc);
+
+-- findByStatusOrderByBrandAscModelAsc - lista dostępnych samochodów bez sortowania
+create index if not exists idx_cars_status_brand_model on cars (status, brand, model);
+
+-- Raporty za zakres miesięcy dla wszystkich samochodów/marek
+create index if not exists idx_car_monthly_stats_month on car_monthly_stats (month_start);
+create index if not exists idx_brand_monthly_stats_month on brand_monthly_stats (month_start);
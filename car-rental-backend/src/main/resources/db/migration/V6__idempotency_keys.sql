@@ -0,0 +1,12 @@
+-- Odpowiedzi zapamiętane dla nagłówka Idempotency-Key (idempotency.persistence.enabled=true)
+create table if not exists idempotency_keys (
+    idempotency_key varchar(300) not null,
+    fingerprint     varchar(64)  not null,
+    status          integer,
+    etag            varchar(64),
+    body            text,
+    created_at      timestamp(6) with time zone not null,
+    primary key (idempotency_key)
+);
+
+create index if not exists idx_idempotency_keys_created_at on idempotency_keys (created_at);
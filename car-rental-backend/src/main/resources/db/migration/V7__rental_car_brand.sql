@@ -0,0 +1,7 @@
+-- Marka samochodu zapamiętana przy wypożyczeniu - zwrot i przebudowa agregatów marek nie zależą od późniejszej
+-- edycji samochodu. Istniejące wypożyczenia dostają bieżącą markę
+alter table rentals add column car_brand varchar(50);
+
+update rentals set car_brand = (select c.brand from cars c where c.id = rentals.car_id);
+
+alter table rentals alter column car_brand set not null;
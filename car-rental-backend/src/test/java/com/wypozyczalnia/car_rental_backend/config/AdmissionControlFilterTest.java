@@ -0,0 +1,144 @@
+package com.wypozyczalnia.car_rental_backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void tryAcquire_ShouldRefillTokensOverTime() {
+        // given
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 4, 100, now::get);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+
+        // when
+        long wait = limiter.tryAcquire("a");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+
+        // then
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), wait);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void doFilter_WhenClientExceedsRate_ShouldReturn429WithRetryAfter() throws Exception {
+        // given
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new TokenBucketRateLimiter(1, 0.5, 100, now::get), Set.of("partner", "inny"), 10, Duration.ZERO, registry);
+        filter.doFilter(post("partner"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // when
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        filter.doFilter(post("partner"), limited, new MockFilterChain());
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(post("inny"), other, new MockFilterChain());
+
+        // then
+        assertEquals(429, limited.getStatus());
+        assertEquals("2", limited.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, other.getStatus());
+        assertEquals(1.0, registry.get("admission.rejected").tag("reason", "rate_limit").counter().count());
+    }
+
+    @Test
+    void doFilter_WhenConcurrencyLimitReached_ShouldShedWith503() throws Exception {
+        // given
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new TokenBucketRateLimiter(100, 100, 100, now::get), Set.of(), 1, Duration.ofMillis(10), registry);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> first = executor.submit(() -> {
+                filter.doFilter(post("a"), new MockHttpServletResponse(), slow);
+                return null;
+            });
+            entered.await();
+
+            // when
+            MockHttpServletResponse shed = new MockHttpServletResponse();
+            filter.doFilter(post("b"), shed, new MockFilterChain());
+            release.countDown();
+            first.get();
+
+            // then
+            assertEquals(503, shed.getStatus());
+            assertEquals("1", shed.getHeader(HttpHeaders.RETRY_AFTER));
+            assertEquals(0, filter.getInFlight());
+            assertEquals(1.0, registry.get("admission.rejected").tag("reason", "overload").counter().count());
+        }
+    }
+
+    @Test
+    void doFilter_WhenApiKeyIsUnknown_ShouldLimitByAddress() throws Exception {
+        // given
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new TokenBucketRateLimiter(1, 0.5, 100, now::get), Set.of("partner"), 10, Duration.ZERO, registry);
+        filter.doFilter(post("losowy-1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // when
+        MockHttpServletRequest request = post("losowy-2");
+        request.addHeader(HttpHeaders.ORIGIN, "http://localhost:4200");
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        filter.doFilter(request, limited, new MockFilterChain());
+
+        // then
+        assertEquals(429, limited.getStatus());
+        assertEquals("*", limited.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        assertEquals(HttpHeaders.RETRY_AFTER, limited.getHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS));
+    }
+
+    @Test
+    void doFilter_ShouldNotLimitReadsAndQuotes() throws Exception {
+        // given
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new TokenBucketRateLimiter(1, 0.001, 100, now::get), Set.of(), 1, Duration.ZERO, registry);
+
+        // when
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        for (int i = 0; i < 3; i++) {
+            response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/wypozyczenia/aktywne"), response, new MockFilterChain());
+            response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/wypozyczenia/wycena"), response, new MockFilterChain());
+        }
+
+        // then
+        assertEquals(200, response.getStatus());
+    }
+
+    private static MockHttpServletRequest post(String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/wypozyczenia/wypozycz");
+        request.addHeader(AdmissionControlFilter.API_KEY_HEADER, apiKey);
+        return request;
+    }
+}
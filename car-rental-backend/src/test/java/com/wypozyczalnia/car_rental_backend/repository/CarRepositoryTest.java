@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
@@ -113,4 +114,30 @@ class CarRepositoryTest {
         assertEquals("Corolla", result.get(1).getModel());
         result.forEach(samochod -> assertEquals("Toyota", samochod.getBrand()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindCarsAfterIdOrderedById() {
+        // given - dane w setUp()
+
+        // when
+        List<Car> firstPage = carRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1));
+        List<Car> secondPage = carRepository.findByIdGreaterThanOrderByIdAsc(firstPage.get(0).getId(), Limit.of(1));
+
+        // then
+        assertEquals(1, firstPage.size());
+        assertEquals(availableCar.getId(), firstPage.get(0).getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(rentedCar.getId(), secondPage.get(0).getId());
+    }
+
+    @Test
+    void shouldLockCarsInIdOrder() {
+        // given - dane w setUp()
+
+        // when
+        List<Car> locked = carRepository.findAllByIdForUpdate(List.of(rentedCar.getId(), availableCar.getId()));
+
+        // then
+        assertEquals(List.of(availableCar.getId(), rentedCar.getId()), locked.stream().map(Car::getId).toList());
+    }
+}
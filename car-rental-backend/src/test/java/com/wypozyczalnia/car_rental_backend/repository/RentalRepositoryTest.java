@@ -1,16 +1,20 @@
 package com.wypozyczalnia.car_rental_backend.repository;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.ClientRentalView;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalView;
 import com.wypozyczalnia.car_rental_backend.model.entity.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -110,6 +114,26 @@ class RentalRepositoryTest {
                 result.get(0).getRentalDate().isEqual(result.get(1).getRentalDate()));
     }
 
+    @Test
+    void shouldPageClientHistoryByRentalDateAndId() {
+        // given - drugie wypożyczenie tego samego dnia co aktywne
+        Rental sameDay = new Rental(testClient, testCar, availableRental.getRentalDate(), BigDecimal.valueOf(100.00),
+                availableRental.getRentalDate().plusDays(1));
+        sameDay.setStatus(RentalStatus.ZAKONCZONE);
+        entityManager.persistAndFlush(sameDay);
+
+        // when
+        List<ClientRentalView> first = rentalRepository.findClientHistory(testClient.getId(), Limit.of(2));
+        ClientRentalView last = first.get(1);
+        List<ClientRentalView> rest = rentalRepository.findClientHistoryBefore(
+                testClient.getId(), last.rentalDate(), last.id(), Limit.of(2));
+
+        // then
+        assertEquals(List.of(sameDay.getId(), availableRental.getId()), first.stream().map(ClientRentalView::id).toList());
+        assertEquals(List.of(finishedRental.getId()), rest.stream().map(ClientRentalView::id).toList());
+        assertEquals("Toyota", rest.get(0).brand());
+    }
+
     @Test
     void shouldReturnTrueWhenActiveRentalExistsForCar() {
         // given - dane w setUp()
@@ -121,4 +145,132 @@ class RentalRepositoryTest {
         assertTrue(exists);
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldFindActiveRentalViewsWithClientAndCar() {
+        // given
+        entityManager.clear();
+
+        // when
+        List<RentalView> result = rentalRepository.findViewsByStatus(RentalStatus.AKTYWNE);
+
+        // then
+        assertEquals(1, result.size());
+        assertEquals(availableRental.getId(), result.get(0).id());
+        assertEquals("Kowalski", result.get(0).client().lastName());
+        assertEquals("Corolla", result.get(0).car().model());
+    }
+
+    @Test
+    void shouldFindRentalViewsAfterId() {
+        // given - dane w setUp()
+
+        // when
+        List<RentalView> result = rentalRepository.findViewsAfter(availableRental.getId(), Limit.of(10));
+
+        // then
+        assertEquals(1, result.size());
+        assertEquals(finishedRental.getId(), result.get(0).id());
+        assertEquals(RentalStatus.ZAKONCZONE, result.get(0).status());
+    }
+
+    @Test
+    void shouldStreamAllRentalViewsOrderedById() {
+        // given
+        entityManager.clear();
+
+        // when
+        List<Long> ids;
+        try (Stream<RentalView> result = rentalRepository.streamAllViews()) {
+            ids = result.map(RentalView::id).toList();
+        }
+
+        // then
+        assertEquals(List.of(availableRental.getId(), finishedRental.getId()), ids);
+        assertFalse(entityManager.getEntityManager().contains(availableRental));
+    }
+
+    @Test
+    void shouldMarkOnlyActiveRentalsPastReturnDateAsOverdue() {
+        // given
+        Rental overdueRental = new Rental();
+        overdueRental.setClient(testClient);
+        overdueRental.setCar(testCar);
+        overdueRental.setRentalDate(LocalDate.now().minusDays(5));
+        overdueRental.setReturnDate(LocalDate.now().minusDays(1));
+        overdueRental.setTotalCost(BigDecimal.valueOf(400.00));
+        overdueRental.setStatus(RentalStatus.AKTYWNE);
+        entityManager.persistAndFlush(overdueRental);
+        Long versionBefore = overdueRental.getVersion();
+
+        // when
+        List<Long> ids = rentalRepository.findOverdueIds(LocalDate.now(), 0L, Limit.of(10));
+        int updated = rentalRepository.markOverdue(ids, LocalDate.now());
+
+        // then
+        assertEquals(List.of(overdueRental.getId()), ids);
+        assertEquals(1, updated);
+        Rental reloaded = entityManager.find(Rental.class, overdueRental.getId());
+        assertEquals(RentalStatus.PRZETERMINOWANE, reloaded.getStatus());
+        assertEquals(versionBefore + 1, reloaded.getVersion());
+        assertEquals(RentalStatus.ZAKONCZONE, entityManager.find(Rental.class, finishedRental.getId()).getStatus());
+    }
+
+    @Test
+    void shouldFindAvailableCarsWhoseBookingStartedToday() {
+        // given
+        Car reservedCar = new Car();
+        reservedCar.setBrand("Skoda");
+        reservedCar.setModel("Octavia");
+        reservedCar.setDailyPrice(BigDecimal.valueOf(120.00));
+        reservedCar.setStatus(CarStatus.DOSTEPNY);
+        entityManager.persistAndFlush(reservedCar);
+
+        Rental startingToday = new Rental();
+        startingToday.setClient(testClient);
+        startingToday.setCar(reservedCar);
+        startingToday.setRentalDate(LocalDate.now());
+        startingToday.setReturnDate(LocalDate.now().plusDays(3));
+        startingToday.setTotalCost(BigDecimal.valueOf(360.00));
+        startingToday.setStatus(RentalStatus.AKTYWNE);
+        entityManager.persistAndFlush(startingToday);
+
+        // when
+        List<Long> carIds = rentalRepository.findAvailableCarIdsWithStartedBookings(
+                List.of(RentalStatus.AKTYWNE, RentalStatus.PRZETERMINOWANE), LocalDate.now());
+
+        // then
+        assertEquals(List.of(reservedCar.getId()), carIds);
+        assertTrue(rentalRepository.existsStartedBooking(reservedCar.getId(), List.of(RentalStatus.AKTYWNE), LocalDate.now()));
+        assertFalse(rentalRepository.existsStartedBooking(reservedCar.getId(), List.of(RentalStatus.AKTYWNE), LocalDate.now().minusDays(1)));
+    }
+
+    @Test
+    void shouldDetectOverlappingBookingsIncludingOverdueRentals() {
+        // given
+        Car overdueCar = new Car();
+        overdueCar.setBrand("Ford");
+        overdueCar.setModel("Focus");
+        overdueCar.setDailyPrice(BigDecimal.valueOf(90.00));
+        overdueCar.setStatus(CarStatus.WYPOZYCZONY);
+        entityManager.persistAndFlush(overdueCar);
+
+        Rental overdue = new Rental();
+        overdue.setClient(testClient);
+        overdue.setCar(overdueCar);
+        overdue.setRentalDate(LocalDate.now().minusDays(5));
+        overdue.setReturnDate(LocalDate.now().minusDays(1));
+        overdue.setTotalCost(BigDecimal.valueOf(360.00));
+        overdue.setStatus(RentalStatus.PRZETERMINOWANE);
+        entityManager.persistAndFlush(overdue);
+
+        List<RentalStatus> booked = List.of(RentalStatus.AKTYWNE, RentalStatus.PRZETERMINOWANE);
+        LocalDate today = LocalDate.now();
+
+        // when & then
+        assertTrue(rentalRepository.existsOverlappingBooking(testCar.getId(), booked, today.plusDays(1), today.plusDays(3), today));
+        assertFalse(rentalRepository.existsOverlappingBooking(testCar.getId(), booked, today.plusDays(2), today.plusDays(5), today));
+        assertFalse(rentalRepository.existsOverlappingBooking(testCar.getId(), booked, today.minusDays(9), today.minusDays(8), today));
+        assertTrue(rentalRepository.existsOverlappingBooking(overdueCar.getId(), booked, today, today.plusDays(2), today));
+        assertFalse(rentalRepository.existsOverlappingBooking(overdueCar.getId(), booked, today.plusDays(1), today.plusDays(3), today));
+    }
+}
@@ -0,0 +1,91 @@
+package com.wypozyczalnia.car_rental_backend.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Migracje na H2 w trybie PostgreSQL, a Hibernate tylko waliduje schemat - rozjazd encji
+// i migracji zatrzymuje start kontekstu
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@ActiveProfiles("test")
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrations_ShouldCreateSchemaMatchingEntities() {
+        // then
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void migrations_ShouldCreateQueryIndexes() {
+        // when
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE index_name LIKE 'idx_%'", String.class);
+
+        // then
+        assertTrue(indexes.containsAll(List.of("idx_rentals_car_status", "idx_rentals_status_rental_date",
+                "idx_rentals_client_status", "idx_rentals_client_history", "idx_cars_status_brand_model")));
+    }
+
+    @Test
+    void migrations_ShouldUpgradeSchemaCreatedByDdlAutoUpdate() {
+        // given - baza z danymi w kształcie wygenerowanym przez ddl-auto=update, bez historii migracji
+        DriverManagerDataSource baseline = new DriverManagerDataSource(
+                "jdbc:h2:mem:baseline;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate baselineJdbc = new JdbcTemplate(baseline);
+        baselineJdbc.execute("""
+                create table cars (id bigint generated by default as identity, brand varchar(50) not null,
+                    daily_price numeric(10,2) not null, model varchar(50) not null,
+                    status varchar(20) not null check (status in ('DOSTEPNY','WYPOZYCZONY')), primary key (id));
+                create table clients (id bigint generated by default as identity, email varchar(255) not null,
+                    first_name varchar(50) not null, last_name varchar(50) not null, primary key (id));
+                create table rentals (id bigint generated by default as identity, rental_date date not null,
+                    return_date date not null, status varchar(20) not null, total_cost numeric(10,2) not null,
+                    car_id bigint not null references cars, client_id bigint not null references clients, primary key (id));
+                insert into cars (id, brand, daily_price, model, status) values (120, 'Toyota', 100.00, 'Corolla', 'DOSTEPNY');
+                insert into clients (id, email, first_name, last_name) values (7, 'jan@email.com', 'Jan', 'Kowalski');
+                insert into rentals (id, rental_date, return_date, status, total_cost, car_id, client_id)
+                    values (3, '2025-01-01', '2025-01-03', 'ZAKONCZONE', 200.00, 120, 7);
+                """);
+
+        // when
+        Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(baseline)
+                .load()
+                .migrate();
+
+        // then
+        assertEquals(columns(jdbcTemplate), columns(baselineJdbc));
+        assertEquals(0, baselineJdbc.queryForObject("SELECT version FROM cars WHERE id = 120", Long.class));
+        assertTrue(baselineJdbc.queryForObject("SELECT nextval('cars_seq')", Long.class) - 49 > 120);
+        assertTrue(baselineJdbc.queryForObject("SELECT nextval('rentals_seq')", Long.class) - 49 > 3);
+        assertFalse(baselineJdbc.queryForList("SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"type\" = 'SQL'",
+                String.class).contains("1"));
+    }
+
+    // Kolumny schematu zwalidowanego przez Hibernate są wzorcem dla bazy po aktualizacji
+    private static List<String> columns(JdbcTemplate jdbc) {
+        return jdbc.queryForList("SELECT table_name || '.' || column_name || ':' || data_type FROM information_schema.columns " +
+                "WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history' ORDER BY 1", String.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.wypozyczalnia.car_rental_backend.repository;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.service.CarService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldServeRepeatedFindByIdFromSecondLevelCache() {
+        // given
+        Long id = carRepository.save(new Car("Toyota", "Corolla", BigDecimal.valueOf(150), CarStatus.DOSTEPNY)).getId();
+        statistics.clear();
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> carRepository.findById(id));
+        transactionTemplate.executeWithoutResult(status -> carRepository.findById(id));
+
+        // then
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void shouldInvalidateCachedQueryAfterStatusUpdate() {
+        // given
+        Long id = carRepository.save(new Car("Skoda", "Octavia", BigDecimal.valueOf(180), CarStatus.DOSTEPNY)).getId();
+        carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY);
+        carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY);
+        assertTrue(statistics.getQueryCacheHitCount() >= 1);
+
+        // when
+        carService.markAsRented(id);
+
+        // then
+        assertTrue(carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY).stream()
+                .noneMatch(car -> car.getId().equals(id)));
+        assertEquals(CarStatus.WYPOZYCZONY, carRepository.findById(id).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldKeepOtherCarsCachedWhenOneIsRented() {
+        // given
+        Long rentedId = carRepository.save(new Car("Ford", "Focus", BigDecimal.valueOf(130), CarStatus.DOSTEPNY)).getId();
+        Long otherId = carRepository.save(new Car("Ford", "Fiesta", BigDecimal.valueOf(110), CarStatus.DOSTEPNY)).getId();
+        carRepository.findById(rentedId);
+        carRepository.findById(otherId);
+
+        // when
+        carService.markAsRented(rentedId);
+        statistics.clear();
+
+        // then
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(CarStatus.DOSTEPNY, carRepository.findById(otherId).orElseThrow().getStatus());
+            assertEquals(CarStatus.WYPOZYCZONY, carRepository.findById(rentedId).orElseThrow().getStatus());
+        });
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+    }
+}
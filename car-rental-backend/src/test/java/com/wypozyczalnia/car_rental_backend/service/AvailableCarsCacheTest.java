@@ -0,0 +1,127 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailableCarsCacheTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @InjectMocks
+    private AvailableCarsCache availableCarsCache;
+
+    private Car toyota;
+    private Car honda;
+
+    @BeforeEach
+    void setUp() {
+        toyota = new Car("Toyota", "Corolla", BigDecimal.valueOf(100.00), CarStatus.DOSTEPNY);
+        toyota.setId(1L);
+
+        honda = new Car("Honda", "Civic", BigDecimal.valueOf(120.00), CarStatus.DOSTEPNY);
+        honda.setId(2L);
+    }
+
+    @Test
+    void shouldLoadAvailableCarsOnlyOnce() {
+        // given
+        when(carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY))
+                .thenReturn(Arrays.asList(honda, toyota));
+
+        // when
+        availableCarsCache.getAvailableCars();
+        List<Car> result = availableCarsCache.getAvailableCars();
+
+        // then
+        assertEquals(2, result.size());
+        verify(carRepository, times(1)).findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY);
+    }
+
+    @Test
+    void shouldRemoveRentedCarAndKeepOrderWhenCarReturns() {
+        // given
+        when(carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY))
+                .thenReturn(Arrays.asList(honda, toyota));
+        availableCarsCache.getAvailableCars();
+
+        // when
+        toyota.setStatus(CarStatus.WYPOZYCZONY);
+        availableCarsCache.onCarChanged(CarChangedEvent.changed(toyota, CarStatus.DOSTEPNY));
+        List<Car> afterRent = availableCarsCache.getAvailableCars();
+
+        toyota.setStatus(CarStatus.DOSTEPNY);
+        availableCarsCache.onCarChanged(CarChangedEvent.changed(toyota, CarStatus.WYPOZYCZONY));
+        List<Car> afterReturn = availableCarsCache.getAvailableCars();
+
+        // then
+        assertEquals(1, afterRent.size());
+        assertEquals("Honda", afterRent.get(0).getBrand());
+        assertEquals(2, afterReturn.size());
+        assertEquals("Honda", afterReturn.get(0).getBrand());
+        assertEquals("Toyota", afterReturn.get(1).getBrand());
+    }
+
+    @Test
+    void shouldRemoveDeletedCar() {
+        // given
+        when(carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY))
+                .thenReturn(Arrays.asList(honda, toyota));
+        availableCarsCache.getAvailableCars();
+
+        // when
+        availableCarsCache.onCarChanged(CarChangedEvent.deleted(2L, CarStatus.DOSTEPNY));
+
+        // then
+        List<Car> result = availableCarsCache.getAvailableCars();
+        assertEquals(1, result.size());
+        assertEquals("Toyota", result.get(0).getBrand());
+    }
+
+    @Test
+    void shouldRebuildSnapshotOnceOnReadAfterManyChanges() {
+        // given
+        when(carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY)).thenReturn(List.of(honda));
+        List<Car> initial = availableCarsCache.getAvailableCars();
+
+        // when
+        for (long id = 10; id < 20; id++) {
+            Car imported = new Car("Skoda", "Fabia " + id, BigDecimal.valueOf(90.00), CarStatus.DOSTEPNY);
+            imported.setId(id);
+            availableCarsCache.onCarChanged(CarChangedEvent.changed(imported, null));
+        }
+        List<Car> first = availableCarsCache.getAvailableCars();
+        List<Car> second = availableCarsCache.getAvailableCars();
+
+        // then
+        assertEquals(1, initial.size());
+        assertEquals(11, first.size());
+        assertSame(first, second);
+        verify(carRepository, times(1)).findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY);
+    }
+
+    @Test
+    void shouldIgnoreEventsBeforeFirstLoad() {
+        // when
+        availableCarsCache.onCarChanged(CarChangedEvent.changed(toyota, null));
+
+        // then
+        verifyNoInteractions(carRepository);
+    }
+}
@@ -0,0 +1,103 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.BookedPeriod;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarAvailabilityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 10);
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @InjectMocks
+    private CarAvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(rentalRepository.findBookedPeriods(CarAvailabilityIndex.BOOKED_STATUSES)).thenReturn(Arrays.asList(
+                new BookedPeriod(1L, 1L, DAY, DAY.plusDays(3)),
+                new BookedPeriod(2L, 1L, DAY.plusDays(10), DAY.plusDays(12))
+        ));
+    }
+
+    @Test
+    void shouldDetectOverlappingPeriods() {
+        assertFalse(availabilityIndex.isAvailable(1L, DAY.plusDays(2), DAY.plusDays(5)));
+        assertFalse(availabilityIndex.isAvailable(1L, DAY.minusDays(5), DAY.plusDays(20)));
+        assertFalse(availabilityIndex.isAvailable(1L, DAY.plusDays(11), DAY.plusDays(12)));
+    }
+
+    @Test
+    void shouldAllowPeriodsBetweenAndAdjacentToBookings() {
+        assertTrue(availabilityIndex.isAvailable(1L, DAY.plusDays(3), DAY.plusDays(10)));
+        assertTrue(availabilityIndex.isAvailable(1L, DAY.minusDays(2), DAY));
+        assertTrue(availabilityIndex.isAvailable(1L, DAY.plusDays(12), DAY.plusDays(30)));
+        assertTrue(availabilityIndex.isAvailable(2L, DAY, DAY.plusDays(3)));
+    }
+
+    @Test
+    void shouldRejectOverlappingReservation() {
+        // when
+        availabilityIndex.reserve(3L, 1L, DAY.plusDays(4), DAY.plusDays(6));
+
+        // then
+        assertFalse(availabilityIndex.isAvailable(1L, DAY.plusDays(5), DAY.plusDays(7)));
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> availabilityIndex.reserve(4L, 1L, DAY.plusDays(5), DAY.plusDays(8))
+        );
+        assertEquals("Car already rented", exception.getMessage());
+    }
+
+    @Test
+    void shouldFreePeriodAfterRelease() {
+        // given
+        assertFalse(availabilityIndex.isAvailable(1L, DAY, DAY.plusDays(3)));
+
+        // when
+        availabilityIndex.release(1L);
+
+        // then
+        assertTrue(availabilityIndex.isAvailable(1L, DAY, DAY.plusDays(3)));
+        verify(rentalRepository, times(1)).findBookedPeriods(CarAvailabilityIndex.BOOKED_STATUSES);
+    }
+
+    @Test
+    void shouldKeepOverduePeriodBookedUntilReturned() {
+        // given
+        LocalDate today = LocalDate.now();
+        availabilityIndex.reserve(3L, 5L, today.minusDays(5), today.minusDays(1));
+
+        // then
+        assertFalse(availabilityIndex.isAvailable(5L, today, today.plusDays(2)));
+        assertTrue(availabilityIndex.isAvailable(5L, today.plusDays(1), today.plusDays(3)));
+    }
+
+    @Test
+    void shouldDropBookingsOfDeletedCar() {
+        // given
+        assertTrue(availabilityIndex.hasBookings(1L));
+
+        // when
+        availabilityIndex.onCarChanged(CarChangedEvent.deleted(1L, CarStatus.DOSTEPNY));
+
+        // then
+        assertFalse(availabilityIndex.hasBookings(1L));
+    }
+}
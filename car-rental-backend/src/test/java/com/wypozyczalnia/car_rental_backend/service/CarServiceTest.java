@@ -1,8 +1,11 @@
 package com.wypozyczalnia.car_rental_backend.service;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.CursorPage;
 import com.wypozyczalnia.car_rental_backend.model.entity.Car;
 import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
 import com.wypozyczalnia.car_rental_backend.model.exception.CarNotFoundException;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
 import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +13,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -27,6 +32,15 @@ class CarServiceTest {
     @Mock
     private CarRepository carRepository;
 
+    @Mock
+    private AvailableCarsCache availableCarsCache;
+
+    @Mock
+    private CarAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CarService carService;
 
@@ -79,6 +93,43 @@ class CarServiceTest {
         verify(carRepository, times(1)).findAll();
     }
 
+    @Test
+    void shouldReturnPageWithNextCursorWhenMoreCarsExist() {
+        // given
+        when(carRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(testCar, testCar2));
+
+        // when
+        CursorPage<Car> result = carService.findPage(null, 1);
+
+        // then
+        assertEquals(1, result.items().size());
+        assertEquals(1L, result.next());
+    }
+
+    @Test
+    void shouldReturnLastPageWithoutNextCursor() {
+        // given
+        when(carRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(2)))
+                .thenReturn(Arrays.asList(testCar2));
+
+        // when
+        CursorPage<Car> result = carService.findPage(1L, 1);
+
+        // then
+        assertEquals(1, result.items().size());
+        assertEquals("Honda", result.items().get(0).getBrand());
+        assertNull(result.next());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPageLimitIsInvalid() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> carService.findPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> carService.findPage(null, CursorPage.MAX_LIMIT + 1));
+        verifyNoInteractions(carRepository);
+    }
+
     @Test
     void shouldReturnCarWhenValidId() {
         // given
@@ -165,6 +216,21 @@ class CarServiceTest {
         verify(carRepository, never()).save(any(Car.class));
     }
 
+    @Test
+    void shouldThrowExceptionWhenUpdatingStaleCarVersion() {
+        // given
+        testCar.setVersion(5L);
+        Car updateData = new Car("Toyota", "Camry", BigDecimal.valueOf(150.00), CarStatus.DOSTEPNY);
+        updateData.setVersion(4L);
+        when(carRepository.findById(1L)).thenReturn(Optional.of(testCar));
+
+        // when & then
+        assertThrows(VersionConflictException.class, () -> carService.update(1L, updateData));
+        assertEquals("Corolla", testCar.getModel());
+        verify(carRepository, never()).save(any(Car.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void shouldDeleteAvailableCar() {
         // given
@@ -215,7 +281,7 @@ class CarServiceTest {
     void shouldReturnAvailableCars() {
         // given
         List<Car> availableCars = Arrays.asList(testCar);
-        when(carRepository.findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY)).thenReturn(availableCars);
+        when(availableCarsCache.getAvailableCars()).thenReturn(availableCars);
 
         // when
         List<Car> result = carService.findAvailable();
@@ -223,28 +289,27 @@ class CarServiceTest {
         // then
         assertEquals(1, result.size());
         assertEquals(CarStatus.DOSTEPNY, result.get(0).getStatus());
-        verify(carRepository, times(1)).findByStatusOrderByBrandAscModelAsc(CarStatus.DOSTEPNY);
+        verifyNoInteractions(carRepository);
     }
 
     @Test
     void shouldMarkCarAsRented() {
         // given
-        when(carRepository.findById(1L)).thenReturn(Optional.of(testCar));
-        when(carRepository.save(any(Car.class))).thenReturn(testCar);
+        when(carRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(testCar));
 
         // when
-        carService.markAsRented(1L);
+        Car result = carService.markAsRented(1L);
 
         // then
-        assertEquals(CarStatus.WYPOZYCZONY, testCar.getStatus());
-        verify(carRepository, times(1)).findById(1L);
+        assertEquals(CarStatus.WYPOZYCZONY, result.getStatus());
         verify(carRepository, times(1)).save(testCar);
+        verify(eventPublisher, times(1)).publishEvent(any(CarChangedEvent.class));
     }
 
     @Test
     void shouldThrowExceptionWhenMarkingAlreadyRentedCar() {
         // given
-        when(carRepository.findById(2L)).thenReturn(Optional.of(testCar2));
+        when(carRepository.findAllByIdForUpdate(List.of(2L))).thenReturn(List.of(testCar2));
 
         // when & then
         IllegalStateException exception = assertThrows(
@@ -253,8 +318,32 @@ class CarServiceTest {
         );
 
         assertEquals("Car is not available for rental", exception.getMessage());
-        verify(carRepository, times(1)).findById(2L);
         verify(carRepository, never()).save(any(Car.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenMarkingNonExistentCarAsRented() {
+        // given
+        when(carRepository.findAllByIdForUpdate(List.of(999L))).thenReturn(List.of());
+
+        // when & then
+        assertThrows(CarNotFoundException.class, () -> carService.markAsRented(999L));
+    }
+
+    @Test
+    void shouldSkipCarsTakenBeforeTheirBookingStarted() {
+        // given
+        when(carRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(testCar, testCar2));
+
+        // when
+        int claimed = carService.markStartedAsRented(List.of(1L, 2L));
+
+        // then
+        assertEquals(1, claimed);
+        assertEquals(CarStatus.WYPOZYCZONY, testCar.getStatus());
+        verify(carRepository, times(1)).save(testCar);
+        verify(eventPublisher, times(1)).publishEvent(any(CarChangedEvent.class));
     }
 
     @Test
@@ -0,0 +1,118 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.CarStatusChange;
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CarStatusBroadcasterTest {
+
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+
+    private CarStatusBroadcaster broadcaster;
+    private SseEmitter emitter;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new CarStatusBroadcaster(pendingTasks::add, 2, Duration.ofMinutes(1));
+        emitter = mock(SseEmitter.class);
+        broadcaster.subscribe(emitter);
+
+        car = new Car("Toyota", "Corolla", BigDecimal.valueOf(100.00), CarStatus.WYPOZYCZONY);
+        car.setId(1L);
+        car.setVersion(3L);
+    }
+
+    @Test
+    void onCarChanged_ShouldSendStatusTransitionToSubscriber() throws IOException {
+        // when
+        broadcaster.onCarChanged(CarChangedEvent.changed(car, CarStatus.DOSTEPNY));
+        runPendingTasks();
+
+        // then
+        List<SseEmitter.SseEventBuilder> events = sentEvents(1);
+        assertEquals(new CarStatusChange(1L, 3L, CarStatus.DOSTEPNY, CarStatus.WYPOZYCZONY), dataOf(events.get(0)));
+    }
+
+    @Test
+    void onCarChanged_WhenStatusUnchanged_ShouldNotSend() throws IOException {
+        // when
+        broadcaster.onCarChanged(CarChangedEvent.changed(car, CarStatus.WYPOZYCZONY));
+        runPendingTasks();
+
+        // then
+        assertTrue(pendingTasks.isEmpty());
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void onCarChanged_WhenBufferOverflows_ShouldSendResyncAndLatestChange() throws IOException {
+        // given - subskrybent nie odbiera, zadanie wysyłki czeka w kolejce
+        broadcaster.onCarChanged(CarChangedEvent.changed(car, CarStatus.DOSTEPNY));
+        broadcaster.onCarChanged(CarChangedEvent.deleted(2L, CarStatus.DOSTEPNY));
+
+        // when
+        broadcaster.onCarChanged(CarChangedEvent.deleted(3L, CarStatus.DOSTEPNY));
+        runPendingTasks();
+
+        // then
+        List<SseEmitter.SseEventBuilder> events = sentEvents(2);
+        assertTrue(eventText(events.get(0)).contains("event:" + CarStatusBroadcaster.RESYNC_EVENT));
+        assertEquals(new CarStatusChange(3L, null, CarStatus.DOSTEPNY, null), dataOf(events.get(1)));
+    }
+
+    @Test
+    void onCarChanged_WhenSendFails_ShouldDropSubscriber() throws IOException {
+        // given
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        // when
+        broadcaster.onCarChanged(CarChangedEvent.changed(car, CarStatus.DOSTEPNY));
+        runPendingTasks();
+
+        // then
+        assertEquals(0, broadcaster.getSubscriberCount());
+        verify(emitter).completeWithError(any(IOException.class));
+    }
+
+    private void runPendingTasks() {
+        while (!pendingTasks.isEmpty()) {
+            pendingTasks.remove(0).run();
+        }
+    }
+
+    private List<SseEmitter.SseEventBuilder> sentEvents(int count) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, times(count)).send(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private Object dataOf(SseEmitter.SseEventBuilder event) {
+        return event.build().stream()
+                .map(part -> part.getData())
+                .filter(CarStatusChange.class::isInstance)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private String eventText(SseEmitter.SseEventBuilder event) {
+        StringBuilder text = new StringBuilder();
+        event.build().forEach(part -> text.append(part.getData()));
+        return text.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package com.wypozyczalnia.car_rental_backend.service;
 
 import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
 import com.wypozyczalnia.car_rental_backend.repository.ClientRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -23,6 +25,9 @@ class ClientServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ClientService clientService;
 
@@ -138,6 +143,20 @@ class ClientServiceTest {
         verify(clientRepository, times(1)).save(testClient);
     }
 
+    @Test
+    void shouldThrowExceptionWhenUpdatingStaleClientVersion() {
+        // given
+        testClient.setVersion(3L);
+        Client updateData = new Client("Jan", "Nowak", "jan.nowak@email.com");
+        updateData.setVersion(2L);
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(testClient));
+
+        // when & then
+        assertThrows(VersionConflictException.class, () -> clientService.update(1L, updateData));
+        assertEquals("Kowalski", testClient.getLastName());
+        verify(clientRepository, never()).save(any(Client.class));
+    }
+
     @Test
     void shouldDeleteClientWithoutActiveRentals() {
         // given
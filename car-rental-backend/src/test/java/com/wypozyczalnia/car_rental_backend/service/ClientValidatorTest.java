@@ -0,0 +1,98 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientValidatorTest {
+
+    @Test
+    void shouldNormalizeNamesAndEmail() {
+        // given
+        Client client = new Client("  mAŁGORZATA  ", "nowak \t  KOWALSKA", "  Jan.Kowalski@Email.COM ");
+
+        // when
+        ClientValidator.validate(client);
+        ClientValidator.normalize(client);
+
+        // then
+        assertEquals("Małgorzata", client.getFirstName());
+        assertEquals("Nowak kowalska", client.getLastName());
+        assertEquals("jan.kowalski@email.com", client.getEmail());
+    }
+
+    @Test
+    void shouldReturnSameInstanceWhenAlreadyNormalized() {
+        // given
+        String name = "Nowak-kowalska";
+        String email = "jan@email.com";
+
+        // when / then
+        assertSame(name, ClientValidator.normalizeName(name));
+        assertSame(email, ClientValidator.normalizeEmail(email));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jan@email.com", "j.k+tag@sub.domain.pl", "a_b-c@x-y.com", " jan@email.com "})
+    void shouldAcceptValidEmails(String email) {
+        // given
+        Client client = new Client("Jan", "Kowalski", email);
+
+        // when / then
+        assertDoesNotThrow(() -> ClientValidator.validate(client));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jan", "@email.com", "jan@", "jan@email", "jan@.com", "jan@email.c", "jan@email.c0m",
+            "jan@@email.com", "jan@em_ail.com", "jan@em+ail.com", "ja n@email.com"})
+    void shouldRejectInvalidEmails(String email) {
+        // given
+        Client client = new Client("Jan", "Kowalski", email);
+
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ClientValidator.validate(client));
+
+        // then
+        assertEquals("Email has invalid format", exception.getMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "''|Kowalski|First name is required",
+            "J|Kowalski|First name must be at least 2 characters long",
+            "Jan|'   '|Last name is required",
+            "Jan|K0walski|First name and last name can only contain letters, spaces, hyphens and apostrophes",
+            "O'Neil|Kowalski|"
+    })
+    void shouldValidateNames(String firstName, String lastName, String expectedMessage) {
+        // given
+        Client client = new Client(firstName, lastName, "jan@email.com");
+
+        // when / then
+        if (expectedMessage == null) {
+            assertDoesNotThrow(() -> ClientValidator.validate(client));
+        } else {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> ClientValidator.validate(client));
+            assertEquals(expectedMessage, exception.getMessage());
+        }
+    }
+
+    @Test
+    void shouldRejectTooLongLastName() {
+        // given
+        Client client = new Client("Jan", "K" + "a".repeat(50), "jan@email.com");
+
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ClientValidator.validate(client));
+
+        // then
+        assertEquals("Last name cannot be longer than 50 characters", exception.getMessage());
+    }
+}
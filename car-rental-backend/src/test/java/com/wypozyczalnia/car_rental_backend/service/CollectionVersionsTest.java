@@ -0,0 +1,51 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionVersionsTest {
+
+    private final CollectionVersions collectionVersions = new CollectionVersions();
+
+    @Test
+    void onCarChanged_ShouldChangeCarAndRentalEtags() {
+        // given
+        String cars = collectionVersions.etag(CollectionVersions.Resource.CARS);
+        String rentals = collectionVersions.etag(CollectionVersions.Resource.RENTALS);
+        Car car = new Car("Toyota", "Corolla", BigDecimal.valueOf(150), CarStatus.DOSTEPNY);
+        car.setId(1L);
+
+        // when
+        collectionVersions.onCarChanged(CarChangedEvent.changed(car, null));
+
+        // then
+        assertNotEquals(cars, collectionVersions.etag(CollectionVersions.Resource.CARS));
+        assertNotEquals(rentals, collectionVersions.etag(CollectionVersions.Resource.RENTALS));
+    }
+
+    @Test
+    void rentalsChanged_ShouldChangeEtagOnlyAfterCommit() {
+        // given
+        String before = collectionVersions.etag(CollectionVersions.Resource.RENTALS);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when
+            collectionVersions.rentalsChanged();
+
+            // then
+            assertEquals(before, collectionVersions.etag(CollectionVersions.Resource.RENTALS));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertNotEquals(before, collectionVersions.etag(CollectionVersions.Resource.RENTALS));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wypozyczalnia.car_rental_backend.model.dto.DataFormat;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalView;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    private ExportService exportService;
+
+    private RentalView rental;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(rentalRepository, objectMapper);
+
+        rental = new RentalView(1L, 0L,
+                1L, "Jan", "Kowalski", "jan.kowalski@email.com",
+                2L, "Skoda", "Octavia, kombi", BigDecimal.valueOf(150), CarStatus.WYPOZYCZONY,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 4), new BigDecimal("450.00"), RentalStatus.AKTYWNE);
+    }
+
+    @Test
+    void shouldExportRentalsAsCsvAndCloseStream() throws Exception {
+        // given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(rentalRepository.streamAllViews()).thenReturn(Stream.of(rental).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        long count = exportService.exportRentals(output, DataFormat.CSV);
+
+        // then
+        assertEquals(1, count);
+        assertEquals(ExportService.RENTALS_CSV_HEADER + "\n" +
+                        "1,1,Jan,Kowalski,jan.kowalski@email.com,2,Skoda,\"Octavia, kombi\",2025-01-01,2025-01-04,450.00,AKTYWNE\n",
+                output.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void shouldExportRentalsAsNdjson() throws Exception {
+        // given
+        when(rentalRepository.streamAllViews()).thenReturn(Stream.of(rental, rental));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // when
+        long count = exportService.exportRentals(output, DataFormat.NDJSON);
+
+        // then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[0].contains("\"rentalDate\":\"2025-01-01\""));
+    }
+}
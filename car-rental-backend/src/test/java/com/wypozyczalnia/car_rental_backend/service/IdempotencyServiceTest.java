@@ -0,0 +1,177 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wypozyczalnia.car_rental_backend.model.entity.IdempotencyKey;
+import com.wypozyczalnia.car_rental_backend.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(repository, new ObjectMapper(), transactionManager,
+                Duration.ofHours(1), 100, false, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void execute_ShouldReplayOriginalResponseForRetry() {
+        // given
+        ResponseEntity<?> first = idempotencyService.execute("klucz-1", "wypozycz", Map.of("carId", 1), this::created);
+
+        // when
+        ResponseEntity<?> retry = idempotencyService.execute("klucz-1", "wypozycz", Map.of("carId", 1), this::created);
+
+        // then
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_ShouldRejectKeyReusedWithDifferentRequest() {
+        // given
+        idempotencyService.execute("klucz-2", "wypozycz", Map.of("carId", 1), this::created);
+
+        // when
+        ResponseEntity<?> reused = idempotencyService.execute("klucz-2", "wypozycz", Map.of("carId", 2), this::created);
+
+        // then
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldRejectConcurrentRetryWhileFirstRequestRuns() {
+        // when
+        ResponseEntity<?> nested = idempotencyService.execute("klucz-3", "zwroc", 7L, () ->
+                idempotencyService.execute("klucz-3", "zwroc", 7L, this::created));
+
+        // then
+        assertEquals(HttpStatus.CONFLICT, nested.getStatusCode());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void execute_ShouldReleaseKeyAfterServerError() {
+        // given
+        idempotencyService.execute("klucz-4", "wypozycz", 1, () -> ResponseEntity.internalServerError().build());
+
+        // when
+        ResponseEntity<?> retry = idempotencyService.execute("klucz-4", "wypozycz", 1, this::created);
+
+        // then
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldTakeOverClaimAbandonedLongerThanLease() {
+        // given
+        idempotencyService = persistentService();
+        String fingerprint = idempotencyService.fingerprint("wypozycz", 1);
+        when(repository.saveAndFlush(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(repository.findById("wypozycz:klucz-5"))
+                .thenReturn(Optional.of(new IdempotencyKey("wypozycz:klucz-5", fingerprint, Instant.now().minusSeconds(60))));
+        when(repository.takeOver(eq("wypozycz:klucz-5"), eq(fingerprint), any(), any())).thenReturn(1);
+
+        // when
+        ResponseEntity<?> retry = idempotencyService.execute("klucz-5", "wypozycz", 1, this::created);
+
+        // then
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(1, calls.get());
+        verify(repository).complete(eq("wypozycz:klucz-5"), eq(201), any(), any());
+    }
+
+    @Test
+    void execute_ShouldKeepRecentClaimOfAnotherInstance() {
+        // given
+        idempotencyService = persistentService();
+        String fingerprint = idempotencyService.fingerprint("wypozycz", 1);
+        when(repository.saveAndFlush(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(repository.findById("wypozycz:klucz-6"))
+                .thenReturn(Optional.of(new IdempotencyKey("wypozycz:klucz-6", fingerprint, Instant.now())));
+        when(repository.takeOver(eq("wypozycz:klucz-6"), eq(fingerprint), any(), any())).thenReturn(0);
+
+        // when
+        ResponseEntity<?> retry = idempotencyService.execute("klucz-6", "wypozycz", 1, this::created);
+
+        // then
+        assertEquals(HttpStatus.CONFLICT, retry.getStatusCode());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void execute_ShouldReleaseMemoryClaimWhenDatabaseClaimFails() {
+        // given
+        idempotencyService = persistentService();
+        when(repository.saveAndFlush(any(IdempotencyKey.class)))
+                .thenThrow(new CannotCreateTransactionException("DB down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        assertThrows(CannotCreateTransactionException.class,
+                () -> idempotencyService.execute("klucz-7", "wypozycz", 1, this::created));
+
+        // when
+        ResponseEntity<?> retry = idempotencyService.execute("klucz-7", "wypozycz", 1, this::created);
+
+        // then
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldReturnResponseWhenStoringItFails() {
+        // given
+        idempotencyService = persistentService();
+        when(repository.saveAndFlush(any(IdempotencyKey.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.complete(any(), anyInt(), any(), any())).thenThrow(new CannotCreateTransactionException("DB down"));
+
+        // when
+        ResponseEntity<?> response = idempotencyService.execute("klucz-8", "wypozycz", 1, this::created);
+
+        // then
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+    private IdempotencyService persistentService() {
+        return new IdempotencyService(repository, new ObjectMapper(), transactionManager,
+                Duration.ofHours(1), 100, true, Duration.ofSeconds(30));
+    }
+
+    private ResponseEntity<?> created() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", calls.incrementAndGet()));
+    }
+}
@@ -0,0 +1,180 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wypozyczalnia.car_rental_backend.model.dto.DataFormat;
+import com.wypozyczalnia.car_rental_backend.model.dto.ImportReport;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.entity.Client;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import com.wypozyczalnia.car_rental_backend.model.event.ClientChangedEvent;
+import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
+import com.wypozyczalnia.car_rental_backend.repository.ClientRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+    @Mock
+    private CarService carService;
+
+    @Mock
+    private ClientService clientService;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ImportService(carService, clientService, carRepository, clientRepository,
+                entityManager, transactionManager, eventPublisher, new ObjectMapper(), 2);
+    }
+
+    @Test
+    void shouldImportCarsFromCsvInBatches() throws Exception {
+        // given
+        String csv = """
+                brand,model,dailyPrice,status
+                Toyota,Corolla,150.00,
+                "Skoda","Octavia, kombi",180.00,WYPOZYCZONY
+                Ford,Focus,abc,
+                BMW,X3,300.00,DOSTEPNY
+                """;
+
+        // when
+        ImportReport report = importService.importCars(stream(csv), DataFormat.CSV);
+
+        // then
+        assertEquals(3, report.imported());
+        assertEquals(1, report.failed());
+        assertEquals(4, report.errors().get(0).line());
+        assertFalse(report.errorsTruncated());
+        verify(carRepository, times(2)).saveAll(anyCollection());
+        verify(entityManager, times(2)).clear();
+        verify(eventPublisher, times(3)).publishEvent(any(CarChangedEvent.class));
+    }
+
+    @Test
+    void shouldDefaultStatusAndParseQuotedFields() throws Exception {
+        // given
+        String csv = "brand,model,dailyPrice\n\"Skoda\",\"Octavia, \"\"RS\"\"\",180.00\n";
+
+        // when
+        importService.importCars(stream(csv), DataFormat.CSV);
+
+        // then
+        ArgumentCaptor<CarChangedEvent> event = ArgumentCaptor.forClass(CarChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("Octavia, \"RS\"", event.getValue().car().getModel());
+        assertEquals(CarStatus.DOSTEPNY, event.getValue().car().getStatus());
+    }
+
+    @Test
+    void shouldSkipClientsWithTakenEmails() throws Exception {
+        // given
+        String ndjson = """
+                {"firstName":"Jan","lastName":"Kowalski","email":"jan@email.com"}
+                {"firstName":"Anna","lastName":"Nowak","email":"anna@email.com"}
+                {"firstName":"Jan","lastName":"Drugi","email":"jan@email.com"}
+                """;
+        when(clientRepository.findExistingEmails(anyCollection()))
+                .thenReturn(Set.of("anna@email.com"))
+                .thenReturn(Set.of("jan@email.com"));
+
+        // when
+        ImportReport report = importService.importClients(stream(ndjson), DataFormat.NDJSON);
+
+        // then
+        assertEquals(1, report.imported());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(2L, 3L), report.errors().stream().map(ImportReport.RowError::line).toList());
+        verify(clientService, times(3)).validateClient(any(Client.class));
+    }
+
+    @Test
+    void shouldReportRowsOfRejectedBatch() throws Exception {
+        // given
+        String csv = """
+                brand,model,dailyPrice
+                Toyota,Corolla,150.00
+                """;
+        when(carRepository.saveAll(anyCollection())).thenThrow(new IllegalStateException("DB down"));
+
+        // when
+        ImportReport report = importService.importCars(stream(csv), DataFormat.CSV);
+
+        // then
+        assertEquals(0, report.imported());
+        assertEquals(1, report.failed());
+        assertEquals(List.of(new ImportReport.RowError(2, "DB down")), report.errors());
+    }
+
+    @Test
+    void shouldRetryRejectedBatchAndReportOnlyFailingRows() throws Exception {
+        // given
+        importService = new ImportService(carService, clientService, carRepository, clientRepository,
+                entityManager, transactionManager, eventPublisher, new ObjectMapper(), 3);
+        String ndjson = """
+                {"firstName":"Anna","lastName":"Nowak","email":"anna@email.com"}
+                {"firstName":"Jan","lastName":"Kowalski","email":"jan@email.com"}
+                {"firstName":"Piotr","lastName":"Zły","email":"piotr@email.com"}
+                """;
+        when(clientRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("anna@email.com"));
+        when(clientRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Client> clients = invocation.getArgument(0);
+            if (clients.stream().anyMatch(client -> client.getEmail().equals("piotr@email.com"))) {
+                throw new IllegalStateException("Constraint violated");
+            }
+            return List.copyOf(clients);
+        });
+
+        // when
+        ImportReport report = importService.importClients(stream(ndjson), DataFormat.NDJSON);
+
+        // then
+        assertEquals(1, report.imported());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(
+                new ImportReport.RowError(1, "Client with email anna@email.com already exists"),
+                new ImportReport.RowError(3, "Constraint violated")
+        ), report.errors());
+        verify(eventPublisher, times(1)).publishEvent(any(ClientChangedEvent.class));
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.OverdueRunReport;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueRentalServiceTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CollectionVersions collectionVersions;
+
+    private OverdueRentalService overdueRentalService;
+
+    @BeforeEach
+    void setUp() {
+        overdueRentalService = new OverdueRentalService(rentalRepository, collectionVersions, transactionManager, 2);
+    }
+
+    @Test
+    void shouldMarkOverdueRentalsInChunks() {
+        // given
+        LocalDate today = LocalDate.now();
+        when(rentalRepository.findOverdueIds(today, 0L, Limit.of(2))).thenReturn(List.of(1L, 4L));
+        when(rentalRepository.findOverdueIds(today, 4L, Limit.of(2))).thenReturn(List.of(7L));
+        when(rentalRepository.markOverdue(List.of(1L, 4L), today)).thenReturn(2);
+        when(rentalRepository.markOverdue(List.of(7L), today)).thenReturn(1);
+
+        // when
+        OverdueRunReport report = overdueRentalService.markOverdueRentals();
+
+        // then
+        assertEquals(3, report.markedOverdue());
+        assertEquals(2, report.chunks());
+        assertEquals(report, overdueRentalService.getLastRun().orElseThrow());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void shouldStopWhenLastChunkIsFull() {
+        // given
+        LocalDate today = LocalDate.now();
+        when(rentalRepository.findOverdueIds(today, 0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(rentalRepository.findOverdueIds(today, 2L, Limit.of(2))).thenReturn(List.of());
+        when(rentalRepository.markOverdue(List.of(1L, 2L), today)).thenReturn(2);
+
+        // when
+        OverdueRunReport report = overdueRentalService.markOverdueRentals();
+
+        // then
+        assertEquals(2, report.markedOverdue());
+        assertEquals(1, report.chunks());
+        verify(rentalRepository, times(1)).markOverdue(any(), eq(today));
+    }
+
+    @Test
+    void shouldReportNoRunBeforeFirstExecution() {
+        // when / then
+        assertTrue(overdueRentalService.getLastRun().isEmpty());
+    }
+}
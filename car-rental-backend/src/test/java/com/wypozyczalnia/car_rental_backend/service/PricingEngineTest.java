@@ -0,0 +1,89 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.PriceQuote;
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.CarStatus;
+import com.wypozyczalnia.car_rental_backend.model.event.CarChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingEngineTest {
+
+    private PricingEngine pricingEngine;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        pricingEngine = new PricingEngine();
+
+        car = new Car("Toyota", "Corolla", new BigDecimal("100.00"), CarStatus.DOSTEPNY);
+        car.setId(1L);
+        car.setVersion(0L);
+    }
+
+    @Test
+    void totalCost_ShouldCountDaysAcrossMonths() {
+        // when - 1 stycznia do 3 lutego to 33 doby, nie 2
+        BigDecimal cost = pricingEngine.totalCost(car, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 2, 3));
+
+        // then
+        assertEquals(new BigDecimal("3300.00"), cost);
+    }
+
+    @Test
+    void totalCost_ShouldApplyWeeklyAndMonthlyRates() {
+        // given
+        car.setWeeklyPrice(new BigDecimal("600.00"));
+        car.setMonthlyPrice(new BigDecimal("2000.00"));
+        LocalDate from = LocalDate.of(2026, 3, 1);
+
+        // when & then
+        assertEquals(new BigDecimal("300.00"), pricingEngine.totalCost(car, from, from.plusDays(3)));
+        // 6 dni kosztowałoby 600 - tyle co pełny tydzień
+        assertEquals(new BigDecimal("600.00"), pricingEngine.totalCost(car, from, from.plusDays(6)));
+        assertEquals(new BigDecimal("800.00"), pricingEngine.totalCost(car, from, from.plusDays(9)));
+        // 4 tygodnie i 2 dni = 2600 > cena miesiąca
+        assertEquals(new BigDecimal("2000.00"), pricingEngine.totalCost(car, from, from.plusDays(30)));
+        assertEquals(new BigDecimal("2700.00"), pricingEngine.totalCost(car, from, from.plusDays(38)));
+    }
+
+    @Test
+    void quote_ShouldReportDiscountAgainstDailyRate() {
+        // given
+        car.setWeeklyPrice(new BigDecimal("550.50"));
+        LocalDate from = LocalDate.of(2026, 3, 1);
+
+        // when
+        PriceQuote quote = pricingEngine.quote(car, from, from.plusDays(14));
+
+        // then
+        assertEquals(14, quote.days());
+        assertEquals(new BigDecimal("1101.00"), quote.totalCost());
+        assertEquals(new BigDecimal("1400.00"), quote.standardCost());
+    }
+
+    @Test
+    void quote_ShouldUseNewRatesAfterCarChange() {
+        // given
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        pricingEngine.quote(car, from, from.plusDays(2));
+
+        // when
+        car.setDailyPrice(new BigDecimal("120.00"));
+        car.setVersion(1L);
+        BigDecimal newVersionCost = pricingEngine.totalCost(car, from, from.plusDays(2));
+
+        car.setDailyPrice(new BigDecimal("130.00"));
+        pricingEngine.onCarChanged(CarChangedEvent.changed(car, CarStatus.DOSTEPNY));
+        BigDecimal afterEventCost = pricingEngine.totalCost(car, from, from.plusDays(2));
+
+        // then
+        assertEquals(new BigDecimal("240.00"), newVersionCost);
+        assertEquals(new BigDecimal("260.00"), afterEventCost);
+    }
+}
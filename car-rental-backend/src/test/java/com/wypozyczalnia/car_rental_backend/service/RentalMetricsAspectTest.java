@@ -0,0 +1,38 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.exception.CarNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RentalMetricsAspectTest {
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void shouldCountRejectedRentalAndTimeServiceCall() {
+        // given
+        LocalDate today = LocalDate.now();
+
+        // when
+        assertThrows(CarNotFoundException.class, () -> rentalService.rentCar(1L, 999L, today, today.plusDays(1)));
+
+        // then
+        assertEquals(1, registry.get(RentalMetrics.REJECTED)
+                .tags("operation", "rentCar", "reason", "car_not_found").counter().count());
+        assertEquals(1, registry.get("service.rentals")
+                .tags("method", "rentCar", "exception", "CarNotFoundException").timer().count());
+    }
+}
@@ -0,0 +1,86 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.StatusCount;
+import com.wypozyczalnia.car_rental_backend.model.entity.Car;
+import com.wypozyczalnia.car_rental_backend.model.entity.RentalStatus;
+import com.wypozyczalnia.car_rental_backend.model.exception.CarNotFoundException;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RentalMetricsTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private AvailableCarsCache availableCarsCache;
+
+    @Mock
+    private JoinPoint joinPoint;
+
+    @Mock
+    private Signature signature;
+
+    private SimpleMeterRegistry registry;
+    private RentalMetrics rentalMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        rentalMetrics = new RentalMetrics(registry, rentalRepository, availableCarsCache, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldCountRejectionsByOperationAndReason() {
+        // given
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getName()).thenReturn("rentCar");
+
+        // when
+        rentalMetrics.onRejected(joinPoint, new IllegalStateException("Car already rented"));
+        rentalMetrics.onRejected(joinPoint, new IllegalStateException("Car already rented"));
+        rentalMetrics.onRejected(joinPoint, new CarNotFoundException(1L));
+
+        // then
+        assertEquals(2, registry.get(RentalMetrics.REJECTED)
+                .tags("operation", "rentCar", "reason", "car_already_rented").counter().count());
+        assertEquals(1, registry.get(RentalMetrics.REJECTED)
+                .tags("operation", "rentCar", "reason", "car_not_found").counter().count());
+    }
+
+    @Test
+    void shouldReportCurrentRentalsAndAvailableCars() {
+        // given
+        when(rentalRepository.countByStatusIn(CarAvailabilityIndex.BOOKED_STATUSES))
+                .thenReturn(List.of(new StatusCount(RentalStatus.AKTYWNE, 7L)));
+        when(availableCarsCache.getAvailableCars()).thenReturn(List.of(new Car(), new Car()));
+
+        // when / then
+        assertEquals(7, registry.get("rentals.current").tag("status", "AKTYWNE").gauge().value());
+        assertEquals(0, registry.get("rentals.current").tag("status", "PRZETERMINOWANE").gauge().value());
+        assertEquals(7, registry.get("rentals.current").tag("status", "AKTYWNE").gauge().value());
+        assertEquals(2, registry.get("cars.available").gauge().value());
+        verify(rentalRepository, times(1)).countByStatusIn(CarAvailabilityIndex.BOOKED_STATUSES);
+    }
+
+    @Test
+    void shouldClassifyUnknownStateErrorsAsConflict() {
+        // when / then
+        assertEquals("conflict", RentalMetrics.reasonOf(new IllegalStateException("Something else")));
+        assertEquals("invalid_request", RentalMetrics.reasonOf(new IllegalArgumentException("Rental date is required")));
+    }
+}
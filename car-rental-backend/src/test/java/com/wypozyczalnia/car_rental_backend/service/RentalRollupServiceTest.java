@@ -0,0 +1,178 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import com.wypozyczalnia.car_rental_backend.model.dto.BrandUtilization;
+import com.wypozyczalnia.car_rental_backend.model.dto.CarMonthlyRevenue;
+import com.wypozyczalnia.car_rental_backend.model.dto.RollupRebuildReport;
+import com.wypozyczalnia.car_rental_backend.model.entity.*;
+import com.wypozyczalnia.car_rental_backend.repository.CarRepository;
+import com.wypozyczalnia.car_rental_backend.repository.ClientRepository;
+import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RentalRollupServiceTest {
+
+    @Autowired
+    private RentalRollupService rollupService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void contribution_ShouldSplitRentedDaysAcrossMonths() {
+        // when
+        Map<YearMonth, RentalRollupService.Delta> deltas = RentalRollupService.contribution(RentalStatus.ZAKONCZONE,
+                LocalDate.of(2025, 1, 29), LocalDate.of(2025, 2, 3), new BigDecimal("500.00"));
+
+        // then
+        assertEquals(new RentalRollupService.Delta(1, 0, new BigDecimal("500.00"), 3), deltas.get(YearMonth.of(2025, 1)));
+        assertEquals(new RentalRollupService.Delta(0, 0, BigDecimal.ZERO, 2), deltas.get(YearMonth.of(2025, 2)));
+    }
+
+    @Test
+    void contribution_ShouldCountCancellationWithoutRevenueOrDays() {
+        // when
+        Map<YearMonth, RentalRollupService.Delta> deltas = RentalRollupService.contribution(RentalStatus.ANULOWANE,
+                LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 5), BigDecimal.ZERO);
+
+        // then
+        assertEquals(Map.of(YearMonth.of(2025, 3), new RentalRollupService.Delta(0, 1, BigDecimal.ZERO, 0)), deltas);
+    }
+
+    @Test
+    void returnCar_ShouldMoveCancelledReservationFromRevenueToCancellations() {
+        // given
+        Car car = carRepository.save(new Car("RollupCancel", "Test", new BigDecimal("100.00"), CarStatus.DOSTEPNY));
+        Client client = clientRepository.save(client("anulowanie"));
+        LocalDate from = LocalDate.now().plusDays(10);
+        YearMonth month = YearMonth.from(from);
+
+        Rental rental = rentalService.rentCar(client.getId(), car.getId(), from, from.plusDays(2));
+        CarMonthlyRevenue booked = rollupService.findRevenue(month, month, car.getId()).get(0);
+
+        // when
+        rentalService.returnCar(rental.getId());
+
+        // then
+        assertEquals(1, booked.rentals());
+        assertEquals(0, new BigDecimal("200.00").compareTo(booked.revenue()));
+
+        List<CarMonthlyRevenue> revenue = rollupService.findRevenue(month, YearMonth.from(from.plusDays(2)), car.getId());
+        CarMonthlyRevenue cancelled = revenue.get(0);
+        assertEquals(0, cancelled.rentals());
+        assertEquals(1, cancelled.cancellations());
+        assertEquals(0, BigDecimal.ZERO.compareTo(cancelled.revenue()));
+        assertEquals(0, revenue.stream().mapToLong(CarMonthlyRevenue::rentedDays).sum());
+    }
+
+    @Test
+    void returnCar_ShouldUpdateBrandFromTimeOfRentalAfterCarEdit() {
+        // given
+        Car car = carRepository.save(new Car("RollupBrandOld", "Test", new BigDecimal("100.00"), CarStatus.DOSTEPNY));
+        Client client = clientRepository.save(client("marka"));
+        LocalDate from = LocalDate.now().plusDays(20);
+        YearMonth month = YearMonth.from(from);
+        Rental rental = rentalService.rentCar(client.getId(), car.getId(), from, from.plusDays(1));
+
+        car.setBrand("RollupBrandNew");
+        carRepository.save(car);
+
+        // when
+        rentalService.returnCar(rental.getId());
+
+        // then
+        List<BrandUtilization> utilization = rollupService.findUtilization(month, month).stream()
+                .filter(row -> row.brand().startsWith("RollupBrand"))
+                .toList();
+        assertEquals(1, utilization.size());
+        assertEquals("RollupBrandOld", utilization.get(0).brand());
+        assertEquals(0, utilization.get(0).rentals());
+        assertEquals(1, utilization.get(0).cancellations());
+    }
+
+    @Test
+    void rebuild_ShouldMatchIncrementalRollups() {
+        // given
+        Car car = carRepository.save(new Car("RollupRebuild", "Test", new BigDecimal("100.00"), CarStatus.DOSTEPNY));
+        Client client = clientRepository.save(client("przebudowa"));
+        LocalDate from = LocalDate.now().plusDays(40);
+        rentalService.rentCar(client.getId(), car.getId(), from, from.plusDays(3));
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = YearMonth.from(from.plusDays(3));
+        List<CarMonthlyRevenue> incremental = rollupService.findRevenue(first, last, car.getId());
+
+        Rental history = new Rental(client, car, LocalDate.of(2024, 5, 30), new BigDecimal("300.00"), LocalDate.of(2024, 6, 2));
+        history.setStatus(RentalStatus.ZAKONCZONE);
+        rentalRepository.save(history);
+
+        // when
+        rollupService.rebuild();
+
+        // then
+        assertEquals(incremental, rollupService.findRevenue(first, last, car.getId()));
+
+        List<BrandUtilization> utilization = rollupService.findUtilization(YearMonth.of(2024, 5), YearMonth.of(2024, 6)).stream()
+                .filter(row -> row.brand().equals("RollupRebuild"))
+                .toList();
+        assertEquals(2, utilization.size());
+        assertEquals(2, utilization.get(0).rentedDays());
+        assertEquals(1, utilization.get(1).rentedDays());
+        assertEquals(1, utilization.get(0).fleetSize());
+        assertEquals(1.0 / 30, utilization.get(1).utilization(), 1e-9);
+    }
+
+    @Test
+    void rebuild_ShouldInsertRowsWithoutSelectingThemFirst() {
+        // given
+        Car car = carRepository.save(new Car("RollupInsert", "Test", new BigDecimal("100.00"), CarStatus.DOSTEPNY));
+        Client client = clientRepository.save(client("wstawianie"));
+        Rental history = new Rental(client, car, LocalDate.of(2022, 1, 1), new BigDecimal("7300.00"), LocalDate.of(2024, 1, 1));
+        history.setStatus(RentalStatus.ZAKONCZONE);
+        rentalRepository.save(history);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        RollupRebuildReport report = rollupService.rebuild();
+
+        // then
+        assertTrue(report.carBuckets() >= 24);
+        assertTrue(statistics.getPrepareStatementCount() < report.carBuckets(),
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    private Client client(String name) {
+        Client client = new Client();
+        client.setFirstName("Rollup");
+        client.setLastName("Test");
+        client.setEmail("rollup." + name + "@email.com");
+        return client;
+    }
+}
@@ -1,22 +1,31 @@
 package com.wypozyczalnia.car_rental_backend.service;
 
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalRequest;
+import com.wypozyczalnia.car_rental_backend.model.dto.RentalView;
 import com.wypozyczalnia.car_rental_backend.model.entity.*;
+import com.wypozyczalnia.car_rental_backend.model.exception.VersionConflictException;
 import com.wypozyczalnia.car_rental_backend.repository.RentalRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +40,18 @@ class RentalServiceTest {
     @Mock
     private ClientService clientService;
 
+    @Mock
+    private CarAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private RentalRollupService rollupService;
+
+    @Mock
+    private CollectionVersions collectionVersions;
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine();
+
     @InjectMocks
     private RentalService rentalService;
 
@@ -85,10 +106,9 @@ class RentalServiceTest {
         LocalDate plannedReturnDate = LocalDate.now().plusDays(3);
 
         when(clientService.findById(1L)).thenReturn(testClient);
-        when(carService.findById(1L)).thenReturn(testCar);
-        when(rentalRepository.existsByCarIdAndStatus(1L, RentalStatus.AKTYWNE)).thenReturn(false);
+        when(availabilityIndex.isAvailable(1L, rentalDate, plannedReturnDate)).thenReturn(true);
+        when(carService.markAsRented(1L)).thenReturn(testCar);
         when(rentalRepository.save(any(Rental.class))).thenReturn(testRental);
-        doNothing().when(carService).markAsRented(1L);
 
         // when
         Rental result = rentalService.rentCar(1L, 1L, rentalDate, plannedReturnDate);
@@ -98,7 +118,63 @@ class RentalServiceTest {
         assertEquals(testClient, result.getClient());
         assertEquals(testCar, result.getCar());
         verify(rentalRepository, times(1)).save(any(Rental.class));
+        verify(availabilityIndex, times(1)).reserve(1L, 1L, rentalDate, plannedReturnDate);
         verify(carService, times(1)).markAsRented(1L);
+        verify(carService, never()).findById(anyLong());
+    }
+
+    @Test
+    void shouldBookFutureRentalWithoutChangingCarStatus() {
+        // given
+        LocalDate rentalDate = LocalDate.now().plusDays(10);
+        LocalDate plannedReturnDate = LocalDate.now().plusDays(12);
+
+        when(clientService.findById(1L)).thenReturn(testClient);
+        when(carService.findById(1L)).thenReturn(testCar);
+        when(availabilityIndex.isAvailable(1L, rentalDate, plannedReturnDate)).thenReturn(true);
+        when(rentalRepository.save(any(Rental.class))).thenReturn(testRental);
+
+        // when
+        rentalService.rentCar(1L, 1L, rentalDate, plannedReturnDate);
+
+        // then
+        verify(availabilityIndex, times(1)).reserve(1L, 1L, rentalDate, plannedReturnDate);
+        verify(carService, never()).markAsRented(anyLong());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCarIsBookedInRequestedPeriod() {
+        // given
+        LocalDate rentalDate = LocalDate.now().plusDays(1);
+        LocalDate plannedReturnDate = LocalDate.now().plusDays(4);
+
+        when(availabilityIndex.isAvailable(1L, rentalDate, plannedReturnDate)).thenReturn(false);
+
+        // when & then
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> rentalService.rentCar(1L, 1L, rentalDate, plannedReturnDate)
+        );
+
+        assertEquals("Car already rented", exception.getMessage());
+        verify(rentalRepository, never()).save(any(Rental.class));
+    }
+
+    @Test
+    void shouldRejectBookingOverlappingRentalMissingFromIndex() {
+        // given
+        LocalDate rentalDate = LocalDate.now().plusDays(1);
+        LocalDate plannedReturnDate = LocalDate.now().plusDays(4);
+
+        when(availabilityIndex.isAvailable(1L, rentalDate, plannedReturnDate)).thenReturn(true);
+        when(rentalRepository.existsOverlappingBooking(eq(1L), any(), eq(rentalDate), eq(plannedReturnDate), any()))
+                .thenReturn(true);
+
+        // when & then
+        assertThrows(IllegalStateException.class, () -> rentalService.rentCar(1L, 1L, rentalDate, plannedReturnDate));
+        verify(carService, times(1)).lockForBooking(Set.of(1L));
+        verify(rentalRepository, never()).save(any(Rental.class));
+        verify(availabilityIndex, never()).reserve(anyLong(), anyLong(), any(), any());
     }
 
     @Test
@@ -132,23 +208,68 @@ class RentalServiceTest {
         assertEquals(RentalStatus.ZAKONCZONE, testRental.getStatus());
         verify(rentalRepository, times(1)).save(testRental);
         verify(carService, times(1)).markAsAvailable(1L);
+        verify(rollupService, times(1)).recordReturn(eq(testRental), any(LocalDate.class), any(BigDecimal.class));
+    }
+
+    @Test
+    void shouldReturnOverdueRental() {
+        // given
+        testRental.setStatus(RentalStatus.PRZETERMINOWANE);
+        when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
+        when(rentalRepository.save(any(Rental.class))).thenReturn(testRental);
+
+        // when
+        rentalService.returnCar(1L);
+
+        // then
+        assertEquals(RentalStatus.ZAKONCZONE, testRental.getStatus());
+        verify(carService, times(1)).markAsAvailable(1L);
+    }
+
+    @Test
+    void shouldKeepCarRentedWhenAnotherBookingStartedToday() {
+        // given
+        when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
+        when(rentalRepository.save(any(Rental.class))).thenReturn(testRental);
+        when(rentalRepository.existsStartedBooking(1L, CarAvailabilityIndex.BOOKED_STATUSES, LocalDate.now())).thenReturn(true);
+
+        // when
+        rentalService.returnCar(1L);
+
+        // then
+        assertEquals(RentalStatus.ZAKONCZONE, testRental.getStatus());
+        verify(carService, never()).markAsAvailable(anyLong());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenReturningStaleRentalVersion() {
+        // given
+        testRental.setVersion(2L);
+        when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
+
+        // when & then
+        assertThrows(VersionConflictException.class, () -> rentalService.returnCar(1L, 1L));
+        assertEquals(RentalStatus.AKTYWNE, testRental.getStatus());
+        verify(rentalRepository, never()).save(any(Rental.class));
+        verify(carService, never()).markAsAvailable(anyLong());
     }
 
     @Test
     void shouldReturnActiveRentals() {
         // given
-        List<Rental> activeRentals = Arrays.asList(testRental);
-        when(rentalRepository.findByStatusOrderByRentalDateDesc(RentalStatus.AKTYWNE))
+        List<RentalView> activeRentals = Arrays.asList(toView(testRental));
+        when(rentalRepository.findViewsByStatusIn(CarAvailabilityIndex.BOOKED_STATUSES))
                 .thenReturn(activeRentals);
 
         // when
-        List<Rental> result = rentalService.findActiveRentals();
+        List<RentalView> result = rentalService.findActiveRentals();
 
         // then
         assertEquals(1, result.size());
-        assertEquals(RentalStatus.AKTYWNE, result.get(0).getStatus());
+        assertEquals(RentalStatus.AKTYWNE, result.get(0).status());
+        assertEquals("Toyota", result.get(0).car().brand());
         verify(rentalRepository, times(1))
-                .findByStatusOrderByRentalDateDesc(RentalStatus.AKTYWNE);
+                .findViewsByStatusIn(CarAvailabilityIndex.BOOKED_STATUSES);
     }
     @Test
     void shouldCancelRentalWhenReturnBeforeStartDate() {
@@ -156,13 +277,91 @@ class RentalServiceTest {
         testRental.setRentalDate(LocalDate.now().plusDays(2)); // Wypożyczenie w przyszłości
         when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
         when(rentalRepository.save(any(Rental.class))).thenReturn(testRental);
-        doNothing().when(carService).markAsAvailable(1L);
 
         // when
         rentalService.returnCar(1L);
 
         // then
         assertEquals(RentalStatus.ANULOWANE, testRental.getStatus());
-        verify(carService, times(1)).markAsAvailable(1L);
+        verify(availabilityIndex, times(1)).release(1L);
+        verify(carService, never()).markAsAvailable(anyLong());
+    }
+
+    @Test
+    void shouldNotSaveRentalWhenCarWasTakenConcurrently() {
+        // given
+        LocalDate rentalDate = LocalDate.now();
+        LocalDate plannedReturnDate = LocalDate.now().plusDays(2);
+
+        when(availabilityIndex.isAvailable(1L, rentalDate, plannedReturnDate)).thenReturn(true);
+        when(carService.markAsRented(1L)).thenThrow(new IllegalStateException("Car is not available for rental"));
+
+        // when & then
+        assertThrows(
+                IllegalStateException.class,
+                () -> rentalService.rentCar(1L, 1L, rentalDate, plannedReturnDate)
+        );
+
+        verify(rentalRepository, never()).save(any(Rental.class));
+        verify(availabilityIndex, never()).reserve(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldRentCarsInBatch() {
+        // given
+        LocalDate today = LocalDate.now();
+        LocalDate future = LocalDate.now().plusDays(5);
+        Car secondCar = new Car("Honda", "Civic", BigDecimal.valueOf(120.00), CarStatus.DOSTEPNY);
+        secondCar.setId(2L);
+        List<RentalRequest> requests = Arrays.asList(
+                new RentalRequest(1L, 1L, today, today.plusDays(2)),
+                new RentalRequest(1L, 2L, future, future.plusDays(3))
+        );
+
+        when(availabilityIndex.isAvailable(anyLong(), any(), any())).thenReturn(true);
+        when(carService.findAllById(Set.of(1L, 2L))).thenReturn(Map.of(1L, testCar, 2L, secondCar));
+        when(clientService.findAllById(Set.of(1L))).thenReturn(Map.of(1L, testClient));
+        when(rentalRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Rental> rentals = invocation.getArgument(0);
+            for (int i = 0; i < rentals.size(); i++) {
+                rentals.get(i).setId(10L + i);
+            }
+            return rentals;
+        });
+
+        // when
+        List<Rental> result = rentalService.rentCars(requests);
+
+        // then
+        assertEquals(2, result.size());
+        verify(carService, times(1)).markAllAsRented(Set.of(1L));
+        verify(rentalRepository, times(1)).saveAll(anyList());
+        verify(availabilityIndex, times(1)).reserve(10L, 1L, today, today.plusDays(2));
+        verify(availabilityIndex, times(1)).reserve(11L, 2L, future, future.plusDays(3));
+    }
+
+    @Test
+    void shouldRejectBatchWithOverlappingRentalsOfSameCar() {
+        // given
+        LocalDate start = LocalDate.now().plusDays(1);
+        List<RentalRequest> requests = Arrays.asList(
+                new RentalRequest(1L, 1L, start, start.plusDays(3)),
+                new RentalRequest(2L, 1L, start.plusDays(2), start.plusDays(4))
+        );
+        when(availabilityIndex.isAvailable(anyLong(), any(), any())).thenReturn(true);
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> rentalService.rentCars(requests));
+        verify(carService, never()).markAllAsRented(any());
+        verify(rentalRepository, never()).saveAll(anyList());
+    }
+
+    private RentalView toView(Rental rental) {
+        return new RentalView(rental.getId(), rental.getVersion(),
+                rental.getClient().getId(), rental.getClient().getFirstName(),
+                rental.getClient().getLastName(), rental.getClient().getEmail(),
+                rental.getCar().getId(), rental.getCar().getBrand(), rental.getCar().getModel(),
+                rental.getCar().getDailyPrice(), rental.getCar().getStatus(),
+                rental.getRentalDate(), rental.getReturnDate(), rental.getTotalCost(), rental.getStatus());
     }
-}
\ No newline at end of file
+}
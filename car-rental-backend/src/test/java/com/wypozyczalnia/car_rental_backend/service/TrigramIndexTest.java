@@ -0,0 +1,81 @@
+package com.wypozyczalnia.car_rental_backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex<>(Comparator.<String>naturalOrder());
+        index.put(1L, "Toyota Corolla", "Toyota", "Corolla");
+        index.put(2L, "Toyota Yaris", "Toyota", "Yaris");
+        index.put(3L, "Skoda Octavia", "Skoda", "Octavia");
+        index.put(4L, "Łukasz Żółkiewski", "Łukasz", "Żółkiewski", "lukasz.zolkiewski@example.com");
+    }
+
+    @Test
+    void search_ShouldMatchFragmentInsideWord() {
+        // when
+        List<String> result = index.search("rol", 10);
+
+        // then
+        assertEquals(List.of("Toyota Corolla"), result);
+    }
+
+    @Test
+    void search_ShouldRequireAllTokensAndIgnoreCase() {
+        // when
+        List<String> result = index.search("TOY yar", 10);
+
+        // then
+        assertEquals(List.of("Toyota Yaris"), result);
+    }
+
+    @Test
+    void search_ShortTokenShouldMatchOnlyWordStart() {
+        // when & then
+        assertEquals(List.of("Skoda Octavia"), index.search("oc", 10));
+        assertTrue(index.search("ta", 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldIgnoreDiacritics() {
+        // when & then
+        assertEquals(List.of("Łukasz Żółkiewski"), index.search("zolk", 10));
+        assertEquals(List.of("Łukasz Żółkiewski"), index.search("Łuk", 10));
+        assertEquals(List.of("Łukasz Żółkiewski"), index.search("example.com", 10));
+    }
+
+    @Test
+    void search_ShouldRankWordStartMatchesFirst() {
+        // given
+        index.put(5L, "Audi Q7", "Audi", "Q7 Mytoyota");
+
+        // when
+        List<String> result = index.search("yota", 10);
+
+        // then
+        assertEquals(List.of("Audi Q7", "Toyota Corolla", "Toyota Yaris"), result);
+        assertEquals(List.of("Toyota Corolla", "Toyota Yaris", "Audi Q7"), index.search("toyota", 10));
+    }
+
+    @Test
+    void putAndRemove_ShouldKeepIndexInSync() {
+        // when
+        index.put(1L, "Toyota Auris", "Toyota", "Auris");
+        index.remove(2L);
+
+        // then
+        assertTrue(index.search("corolla", 10).isEmpty());
+        assertEquals(List.of("Toyota Auris"), index.search("toyota", 10));
+        assertEquals(3, index.size());
+    }
+}
@@ -28,7 +28,8 @@ export class KlientFormComponent implements OnInit {
     this.clientForm = this.fb.group({
       firstName: ['', [Validators.required, Validators.minLength(2), Validators.maxLength(50)]],
       lastName: ['', [Validators.required, Validators.minLength(2), Validators.maxLength(50)]],
-      email: ['', [Validators.required, Validators.email, Validators.maxLength(100)]]
+      email: ['', [Validators.required, Validators.email, Validators.maxLength(100)]],
+      version: [null]
     });
   }
 
@@ -75,7 +76,9 @@ export class KlientFormComponent implements OnInit {
           console.error('Error message:', error.error);
           console.error('Sent data:', klientData);
 
-          this.error = error.error?.message || 'Błąd podczas zapisywania klienta';
+          this.error = error.status === 409
+            ? 'Klient został zmieniony przez innego użytkownika - odśwież dane i spróbuj ponownie'
+            : error.error?.message || 'Błąd podczas zapisywania klienta';
           this.loading = false;
         }
       });
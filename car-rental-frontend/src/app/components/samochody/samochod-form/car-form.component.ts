@@ -29,7 +29,10 @@ export class CarFormComponent implements OnInit {
       brand: ['', [Validators.required, Validators.minLength(2), Validators.maxLength(50)]],
       model: ['', [Validators.required, Validators.minLength(2), Validators.maxLength(50)]],
       dailyPrice: ['', [Validators.required, Validators.min(0.01), Validators.max(10000)]],
-      status: ['DOSTEPNY', Validators.required]
+      weeklyPrice: [null, [Validators.min(0.01), Validators.max(100000)]],
+      monthlyPrice: [null, [Validators.min(0.01), Validators.max(1000000)]],
+      status: ['DOSTEPNY', Validators.required],
+      version: [null]
     });
   }
 
@@ -71,7 +74,9 @@ export class CarFormComponent implements OnInit {
           this.router.navigate(['/samochody']);
         },
         error: (error) => {
-          this.error = 'Błąd podczas zapisywania samochodu';
+          this.error = error.status === 409
+            ? 'Samochód został zmieniony przez innego użytkownika - odśwież dane i spróbuj ponownie'
+            : 'Błąd podczas zapisywania samochodu';
           this.loading = false;
           console.error('Error saving samochod:', error);
         }
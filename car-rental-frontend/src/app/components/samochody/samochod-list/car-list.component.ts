@@ -1,8 +1,9 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import { CommonModule } from '@angular/common';
+import { Subscription } from 'rxjs';
 import { RouterModule } from '@angular/router';
 import { CarService } from '../../../services/car.service';
-import { Car } from '../../../models/car.model';
+import { Car, CarStatusChange } from '../../../models/car.model';
 
 @Component({
   selector: 'app-samochod-list',
@@ -11,15 +12,33 @@ import { Car } from '../../../models/car.model';
   templateUrl: './car-list.component.html',
   styleUrl: './car-list.component.css'
 })
-export class CarListComponent implements OnInit {
+export class CarListComponent implements OnInit, OnDestroy {
   cars: Car[] = [];
   loading = true;
   error = '';
+  private statusSubscription?: Subscription;
 
   constructor(private carService: CarService) { }
 
   ngOnInit(): void {
     this.loadCar();
+    this.statusSubscription = this.carService.statusChanges().subscribe(change =>
+      change ? this.applyStatusChange(change) : this.loadCar());
+  }
+
+  ngOnDestroy(): void {
+    this.statusSubscription?.unsubscribe();
+  }
+
+  applyStatusChange(change: CarStatusChange): void {
+    const index = this.cars.findIndex(car => car.id === change.carId);
+    if (change.status == null) {
+      this.cars = this.cars.filter(car => car.id !== change.carId);
+    } else if (index < 0) {
+      this.loadCar();
+    } else {
+      this.cars[index] = { ...this.cars[index], status: change.status, version: change.version };
+    }
   }
 
   loadCar(): void {
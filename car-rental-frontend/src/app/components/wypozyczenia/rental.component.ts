@@ -1,13 +1,13 @@
 import { Component, OnInit } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { FormBuilder, FormGroup, FormControl, Validators, ReactiveFormsModule, FormsModule, AbstractControl } from '@angular/forms';
-import { Rental, RentalRequest } from '../../models/rental.model';
+import { PriceQuote, Rental, RentalRequest } from '../../models/rental.model';
 import { Car } from '../../models/car.model';
 import { Client } from '../../models/client.model';
 import { RentalService } from '../../services/rental.service';
 import { CarService } from '../../services/car.service';
 import { ClientService } from '../../services/client.service';
-import { forkJoin } from 'rxjs';
+import { catchError, debounceTime, distinctUntilChanged, forkJoin, of, switchMap } from 'rxjs';
 import {ActivatedRoute} from '@angular/router';
 
 @Component({
@@ -30,6 +30,7 @@ export class WypozyczenieComponent implements OnInit {
   clients: Client[] = [];
 
   rentalForm!: FormGroup;
+  quote: PriceQuote | null = null;
   isLoading = false;
   error = '';
   success = '';
@@ -54,6 +55,23 @@ export class WypozyczenieComponent implements OnInit {
   ngOnInit(): void {
     this.loadInitialData();
     this.checkForPreselectedCar();
+    this.watchQuote();
+  }
+
+  // Wycena liczona przez backend (stawki tygodniowe/miesięczne), odświeżana po zmianie samochodu lub dat
+  private watchQuote(): void {
+    this.rentalForm.valueChanges.pipe(
+      debounceTime(250),
+      distinctUntilChanged((a, b) => a.carId === b.carId && a.rentalDate === b.rentalDate
+        && a.plannedReturnDate === b.plannedReturnDate),
+      switchMap(value => value.carId && this.isValidDateRange(value.rentalDate, value.plannedReturnDate)
+        ? this.rentalService.quote({
+            carId: +value.carId,
+            rentalDate: value.rentalDate,
+            plannedReturnDate: value.plannedReturnDate
+          }).pipe(catchError(() => of(null)))
+        : of(null))
+    ).subscribe(quote => this.quote = quote);
   }
 
   private createForm(): FormGroup {
@@ -302,22 +320,11 @@ export class WypozyczenieComponent implements OnInit {
   }
 
   get estimatedCost(): number {
-    const carId = this.rentalForm.get('carId')?.value;
-    const rentalDate = this.rentalForm.get('rentalDate')?.value;
-    const plannedReturnDate = this.rentalForm.get('plannedReturnDate')?.value;
-
-    if (!carId || !rentalDate || !plannedReturnDate) {
-      return 0;
-    }
-
-    const samochod = this.availableCars.find(s => s.id === +carId);
-    if (!samochod) return 0;
-
-    const startDate = new Date(rentalDate);
-    const endDate = new Date(plannedReturnDate);
-    const daysDiff = Math.max(1, Math.ceil((endDate.getTime() - startDate.getTime()) / (1000 * 60 * 60 * 24)));
+    return this.quote?.totalCost ?? 0;
+  }
 
-    return daysDiff * samochod.dailyPrice;
+  get quoteDiscount(): number {
+    return this.quote ? this.quote.standardCost - this.quote.totalCost : 0;
   }
 
   getDaysDifference(): number {
@@ -1,7 +1,18 @@
 export interface Car {
   id?: number;
+  version?: number;
   brand: string;
   model: string;
   dailyPrice: number;
+  weeklyPrice?: number | null;
+  monthlyPrice?: number | null;
   status: 'DOSTEPNY' | 'WYPOZYCZONY';
 }
+
+// status == null - samochód usunięty
+export interface CarStatusChange {
+  carId: number;
+  version?: number;
+  previousStatus: Car['status'] | null;
+  status: Car['status'] | null;
+}
@@ -1,5 +1,6 @@
 export interface Client {
   id?: number;
+  version?: number;
   firstName: string;
   lastName: string;
   email: string;
@@ -0,0 +1,4 @@
+export interface CursorPage<T> {
+  items: T[];
+  next: number | null;
+}
@@ -3,6 +3,7 @@ import { Client } from './client.model';
 
 export interface Rental {
   id?: number;
+  version?: number;
   client: Client;
   car: Car;
   rentalDate: string;
@@ -17,3 +18,19 @@ export interface RentalRequest {
   rentalDate: string;
   plannedReturnDate: string;
 }
+
+export interface QuoteRequest {
+  carId: number;
+  rentalDate: string;
+  plannedReturnDate: string;
+}
+
+// standardCost - cena według stawki dziennej (bez rabatu tygodniowego/miesięcznego)
+export interface PriceQuote {
+  carId: number;
+  rentalDate: string;
+  plannedReturnDate: string;
+  days: number;
+  totalCost: number;
+  standardCost: number;
+}
@@ -1,8 +1,9 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { HttpClient, HttpParams } from '@angular/common/http';
+import { EMPTY, Observable, expand, reduce } from 'rxjs';
 import { environment } from '../../environments/environment';
-import { Car } from '../models/car.model';
+import { CursorPage } from '../models/cursor-page.model';
+import { Car, CarStatusChange } from '../models/car.model';
 
 @Injectable({
   providedIn: 'root'
@@ -13,7 +14,18 @@ export class CarService {
   constructor(private http: HttpClient) { }
 
   getAllCars(): Observable<Car[]> {
-    return this.http.get<Car[]>(this.apiUrl);
+    return this.getPage().pipe(
+      expand(page => page.next != null ? this.getPage(page.next) : EMPTY),
+      reduce((all, page) => all.concat(page.items), [] as Car[])
+    );
+  }
+
+  getPage(after?: number, limit = 500): Observable<CursorPage<Car>> {
+    let params = new HttpParams().set('limit', limit);
+    if (after != null) {
+      params = params.set('after', after);
+    }
+    return this.http.get<CursorPage<Car>>(this.apiUrl, { params });
   }
 
   getCarById(id: number): Observable<Car> {
@@ -35,4 +47,24 @@ export class CarService {
   getAvailableCars(): Observable<Car[]> {
     return this.http.get<Car[]>(`${this.apiUrl}/dostepne`);
   }
+
+  // Zmiany statusu przez SSE zamiast odpytywania; null oznacza, że listę trzeba pobrać ponownie
+  statusChanges(): Observable<CarStatusChange | null> {
+    return new Observable(subscriber => {
+      const source = new EventSource(`${this.apiUrl}/zdarzenia`);
+      // EventSource łączy się ponownie sam, a serwer nie odtwarza zdarzeń z przerwy - po każdym
+      // ponownym połączeniu lista jest pobierana od nowa
+      let connected = false;
+      source.addEventListener('open', () => {
+        if (connected) {
+          subscriber.next(null);
+        }
+        connected = true;
+      });
+      source.addEventListener('status', event =>
+        subscriber.next(JSON.parse((event as MessageEvent).data) as CarStatusChange));
+      source.addEventListener('resync', () => subscriber.next(null));
+      return () => source.close();
+    });
+  }
 }
@@ -1,7 +1,8 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { HttpClient, HttpParams } from '@angular/common/http';
+import { EMPTY, Observable, expand, reduce } from 'rxjs';
 import { environment } from '../../environments/environment';
+import { CursorPage } from '../models/cursor-page.model';
 import { Client } from '../models/client.model';
 
 @Injectable({
@@ -13,7 +14,18 @@ export class ClientService {
   constructor(private http: HttpClient) { }
 
   getAllClients(): Observable<Client[]> {
-    return this.http.get<Client[]>(this.apiUrl);
+    return this.getPage().pipe(
+      expand(page => page.next != null ? this.getPage(page.next) : EMPTY),
+      reduce((all, page) => all.concat(page.items), [] as Client[])
+    );
+  }
+
+  getPage(after?: number, limit = 500): Observable<CursorPage<Client>> {
+    let params = new HttpParams().set('limit', limit);
+    if (after != null) {
+      params = params.set('after', after);
+    }
+    return this.http.get<CursorPage<Client>>(this.apiUrl, { params });
   }
 
   getClientById(id: number): Observable<Client> {
@@ -1,8 +1,9 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { EMPTY, Observable, expand, reduce } from 'rxjs';
 import { environment } from '../../environments/environment';
-import { Rental, RentalRequest } from '../models/rental.model';
+import { CursorPage } from '../models/cursor-page.model';
+import { PriceQuote, QuoteRequest, Rental, RentalRequest } from '../models/rental.model';
 
 @Injectable({
   providedIn: 'root'
@@ -13,13 +14,28 @@ export class RentalService {
   constructor(private http: HttpClient) { }
 
   getAllRentals(): Observable<Rental[]> {
-    return this.http.get<Rental[]>(this.apiUrl);
+    return this.getPage().pipe(
+      expand(page => page.next != null ? this.getPage(page.next) : EMPTY),
+      reduce((all, page) => all.concat(page.items), [] as Rental[])
+    );
+  }
+
+  getPage(after?: number, limit = 500): Observable<CursorPage<Rental>> {
+    let params = new HttpParams().set('limit', limit);
+    if (after != null) {
+      params = params.set('after', after);
+    }
+    return this.http.get<CursorPage<Rental>>(this.apiUrl, { params });
   }
 
   rentCar(request: RentalRequest): Observable<Rental> {
     return this.http.post<Rental>(`${this.apiUrl}/wypozycz`, request);
   }
 
+  quote(request: QuoteRequest): Observable<PriceQuote> {
+    return this.http.post<PriceQuote>(`${this.apiUrl}/wycena`, request);
+  }
+
   returnCar(id: number): Observable<Rental> {
     return this.http.put<Rental>(`${this.apiUrl}/${id}/zwroc`, null);
   }